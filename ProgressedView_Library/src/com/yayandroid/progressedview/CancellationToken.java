@@ -0,0 +1,88 @@
+package com.yayandroid.progressedview;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * 
+ * Token which is handed to a background task, to let it know when nobody
+ * waits for its result anymore, e.g. user has tapped progress or view has
+ * been detached. Cancellation is cooperative, so task should check it
+ * between steps of its work, or set a listener to close what it is blocked
+ * on, and then return as soon as possible.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class CancellationToken {
+
+	private volatile boolean isCancelled = false;
+	private OnCancelListener listener;
+
+	/**
+	 * Listener to get called when token gets cancelled, e.g. to close a
+	 * stream which task is blocked on
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public interface OnCancelListener {
+		void onCancel();
+	}
+
+	/** Returns true if task has been cancelled and should stop */
+	public boolean isCancelled() {
+		return isCancelled;
+	}
+
+	/**
+	 * Throws CancellationException if task has been cancelled, so task can
+	 * stop right where it is. ProgressedView catches it, and drops what task
+	 * would have returned
+	 */
+	public void ThrowIfCancelled() {
+		if (isCancelled)
+			throw new CancellationException("Task has been cancelled");
+	}
+
+	/**
+	 * Set listener to get called once when token gets cancelled, on the
+	 * thread which cancels it, which is usually uiThread. If token is already
+	 * cancelled it is called right away. Null removes it
+	 */
+	public void setOnCancelListener(OnCancelListener listener) {
+		synchronized (this) {
+			if (!isCancelled) {
+				this.listener = listener;
+				return;
+			}
+		}
+
+		if (listener != null)
+			listener.onCancel();
+	}
+
+	/** Cancels token and calls its listener, if it isn't cancelled yet */
+	void Cancel() {
+		OnCancelListener cancelled;
+		synchronized (this) {
+			if (isCancelled)
+				return;
+
+			isCancelled = true;
+			cancelled = listener;
+			listener = null;
+		}
+
+		if (cancelled != null)
+			cancelled.onCancel();
+	}
+
+	/**
+	 * Drops listener of previous run, so a token which hasn't been cancelled
+	 * can be handed to next run of same task
+	 */
+	synchronized void Reset() {
+		listener = null;
+	}
+
+}
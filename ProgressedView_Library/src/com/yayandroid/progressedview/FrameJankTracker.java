@@ -0,0 +1,270 @@
+package com.yayandroid.progressedview;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import com.yayandroid.utility.FrameTask;
+
+import android.content.Context;
+import android.view.WindowManager;
+
+/**
+ * 
+ * Times every frame while a transition or a seek update of its view is
+ * active, and aggregates frame times per key, e.g. per animation type and
+ * interpolation. Frames are listened to by one callback shared by every
+ * tracker, so a frame is recorded once per active key however many views
+ * run it. It only listens to frames while there is something active, so it
+ * costs nothing otherwise.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class FrameJankTracker {
+
+	/** Key of frames which render seek updates */
+	public static final String SEEK = "SEEK";
+	/** Frame time distribution is counted in frames, last one is 6 and over */
+	public static final int BUCKET_COUNT = 6;
+	/** Seek is thought to be active for this long after its last update */
+	private static final long SEEK_LINGER_NANOS = 100000000L;
+	private static final long DEFAULT_FRAME_NANOS = 16666667L;
+
+	private static final HashMap<String, FrameStats> registry =
+			new HashMap<String, FrameStats>();
+
+	// Frame state below is shared by every tracker, and it is only touched
+	// on uiThread
+	/** Keys of running transitions, they are kept once added */
+	private static final ArrayList<ActiveKey> activeKeys =
+			new ArrayList<ActiveKey>();
+	private static long seekActiveUntil = 0;
+	private static long lastFrameNanos = 0;
+	/** All views are on same display, so last tracker's interval is used */
+	private static long frameIntervalNanos = DEFAULT_FRAME_NANOS;
+
+	private String transitionKey;
+
+	/** Transition key and number of views which are running it */
+	private static class ActiveKey {
+
+		final String key;
+		int count = 0;
+
+		ActiveKey(String key) {
+			this.key = key;
+		}
+
+	}
+
+	/**
+	 * 
+	 * Frame times of a key
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public static class FrameStats {
+
+		private final String key;
+		private long frameCount = 0;
+		private long droppedFrameCount = 0;
+		private long worstFrameNanos = 0;
+		private long totalFrameNanos = 0;
+		private final long[] buckets = new long[BUCKET_COUNT];
+
+		private FrameStats(String key) {
+			this.key = key;
+		}
+
+		private FrameStats(FrameStats other) {
+			this.key = other.key;
+			this.frameCount = other.frameCount;
+			this.droppedFrameCount = other.droppedFrameCount;
+			this.worstFrameNanos = other.worstFrameNanos;
+			this.totalFrameNanos = other.totalFrameNanos;
+			System.arraycopy(other.buckets, 0, buckets, 0, BUCKET_COUNT);
+		}
+
+		private void Record(long frameNanos, long intervalNanos) {
+			// Number of vsync intervals this frame has taken
+			int frames = (int) Math.max(1,
+					(frameNanos + intervalNanos / 2) / intervalNanos);
+			frameCount++;
+			droppedFrameCount += frames - 1;
+			worstFrameNanos = Math.max(worstFrameNanos, frameNanos);
+			totalFrameNanos += frameNanos;
+			buckets[Math.min(BUCKET_COUNT, frames) - 1]++;
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public long getFrameCount() {
+			return frameCount;
+		}
+
+		/** Returns number of vsync intervals which had no new frame */
+		public long getDroppedFrameCount() {
+			return droppedFrameCount;
+		}
+
+		public long getWorstFrameNanos() {
+			return worstFrameNanos;
+		}
+
+		public long getAverageFrameNanos() {
+			return frameCount == 0 ? 0 : totalFrameNanos / frameCount;
+		}
+
+		/**
+		 * Returns number of frames which have taken given number of vsync
+		 * intervals, last bucket counts all longer ones
+		 */
+		public long getBucket(int frames) {
+			return buckets[Math.max(1, Math.min(BUCKET_COUNT, frames)) - 1];
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder(key);
+			builder.append(": ").append(frameCount).append(" frames, ")
+					.append(droppedFrameCount).append(" dropped, worst ")
+					.append(worstFrameNanos / 1000000).append(" ms [");
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				if (i > 0)
+					builder.append(' ');
+				builder.append(buckets[i]);
+			}
+			return builder.append(']').toString();
+		}
+
+	}
+
+	private static final FrameTask frame = new FrameTask() {
+
+		@Override
+		protected void doFrame(long frameTimeNanos) {
+			OnFrame(frameTimeNanos);
+		}
+
+	};
+
+	public FrameJankTracker(Context context) {
+		WindowManager windowManager = (WindowManager) context
+				.getSystemService(Context.WINDOW_SERVICE);
+		float refreshRate = windowManager == null ? 0 : windowManager
+				.getDefaultDisplay().getRefreshRate();
+		frameIntervalNanos = refreshRate > 0
+				? (long) (1000000000L / refreshRate) : DEFAULT_FRAME_NANOS;
+	}
+
+	/**
+	 * Starts timing frames of a transition
+	 * 
+	 * @param key
+	 *            : Key to aggregate frame times for
+	 */
+	public void BeginTransition(String key) {
+		EndTransition();
+		this.transitionKey = key;
+		GetActiveKey(key).count++;
+		frame.schedule();
+	}
+
+	/** Stops timing frames of transition */
+	public void EndTransition() {
+		if (transitionKey == null)
+			return;
+
+		GetActiveKey(transitionKey).count--;
+		this.transitionKey = null;
+	}
+
+	/** Keeps timing frames for seek, while its updates keep rendering */
+	public void OnSeekFrame() {
+		seekActiveUntil = System.nanoTime() + SEEK_LINGER_NANOS;
+		frame.schedule();
+	}
+
+	/** Returns active key of given key, adding it if it is not there yet */
+	private static ActiveKey GetActiveKey(String key) {
+		for (int i = 0; i < activeKeys.size(); i++) {
+			ActiveKey active = activeKeys.get(i);
+			if (active.key.equals(key))
+				return active;
+		}
+
+		ActiveKey active = new ActiveKey(key);
+		activeKeys.add(active);
+		return active;
+	}
+
+	private static void OnFrame(long frameTimeNanos) {
+		boolean isSeekActive = frameTimeNanos < seekActiveUntil;
+		boolean hasTransition = false;
+		long frameNanos = lastFrameNanos == 0 ? 0 : frameTimeNanos
+				- lastFrameNanos;
+		for (int i = 0; i < activeKeys.size(); i++) {
+			ActiveKey active = activeKeys.get(i);
+			if (active.count <= 0)
+				continue;
+
+			hasTransition = true;
+			if (frameNanos > 0)
+				Record(active.key, frameNanos);
+		}
+		if (isSeekActive && frameNanos > 0)
+			Record(SEEK, frameNanos);
+
+		if (hasTransition || isSeekActive) {
+			lastFrameNanos = frameTimeNanos;
+			frame.schedule();
+		} else {
+			lastFrameNanos = 0;
+		}
+	}
+
+	private static void Record(String key, long frameNanos) {
+		synchronized (registry) {
+			FrameStats stats = registry.get(key);
+			if (stats == null) {
+				stats = new FrameStats(key);
+				registry.put(key, stats);
+			}
+			stats.Record(frameNanos, frameIntervalNanos);
+		}
+	}
+
+	/** Returns copy of frame times of given key, or null if there is none */
+	public static FrameStats getStats(String key) {
+		synchronized (registry) {
+			FrameStats stats = registry.get(key);
+			return stats == null ? null : new FrameStats(stats);
+		}
+	}
+
+	/** Returns copies of frame times of all keys */
+	public static List<FrameStats> getAllStats() {
+		synchronized (registry) {
+			ArrayList<FrameStats> all = new ArrayList<FrameStats>();
+			for (FrameStats stats : registry.values())
+				all.add(new FrameStats(stats));
+			return all;
+		}
+	}
+
+	/** Drops all frame times */
+	public static void Reset() {
+		synchronized (registry) {
+			registry.clear();
+		}
+	}
+
+	public long getFrameIntervalNanos() {
+		return frameIntervalNanos;
+	}
+
+}
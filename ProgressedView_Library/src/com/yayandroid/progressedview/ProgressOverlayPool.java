@@ -0,0 +1,147 @@
+package com.yayandroid.progressedview;
+
+import java.util.LinkedList;
+import java.util.ListIterator;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * 
+ * Pool of inflated progress layouts which can be shared between
+ * ProgressedViews, e.g. rows of a list. A ProgressedView borrows a progress
+ * when its task starts and gives it back when reversing animation ends, so
+ * number of inflated progress layouts depends on how many tasks are running
+ * at the same time rather than how many rows there are.
+ * 
+ * IMPORTANT!: Pooled views keep the context they are inflated with, so a pool
+ * should not live longer than the screen which uses it.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class ProgressOverlayPool {
+
+	public static final int DEFAULT_MAX_SIZE = 8;
+
+	private final LinkedList<Entry> entries = new LinkedList<Entry>();
+	private int maxSize;
+	private int inflationCount = 0;
+	private int reuseCount = 0;
+	private int evictionCount = 0;
+
+	private static class Entry {
+		final int layoutId;
+		final View view;
+
+		Entry(int layoutId, View view) {
+			this.layoutId = layoutId;
+			this.view = view;
+		}
+	}
+
+	public ProgressOverlayPool() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param maxSize
+	 *            : Maximum number of idle progress views to keep for all
+	 *            layouts together
+	 */
+	public ProgressOverlayPool(int maxSize) {
+		setMaxSize(maxSize);
+	}
+
+	/**
+	 * Returns most recently released progress view for given layout, or
+	 * inflates a new one if there is none
+	 * 
+	 * @param inflater
+	 *            : Inflater to use if a new view needs to be inflated
+	 * @param layoutId
+	 *            : Progress layout resource id
+	 * @param parent
+	 *            : Parent to generate layoutParams from, view will not be
+	 *            attached to it
+	 */
+	public View acquire(LayoutInflater inflater, int layoutId, ViewGroup parent) {
+		ListIterator<Entry> iterator = entries.listIterator(entries.size());
+		while (iterator.hasPrevious()) {
+			Entry entry = iterator.previous();
+			if (entry.layoutId == layoutId) {
+				iterator.remove();
+				reuseCount++;
+				return entry.view;
+			}
+		}
+
+		inflationCount++;
+		return inflater.inflate(layoutId, parent, false);
+	}
+
+	/**
+	 * Gives back progress view to pool, view must already be removed from its
+	 * parent. If pool is full then least recently used view gets evicted
+	 * 
+	 * @param layoutId
+	 *            : Progress layout resource id which view is inflated from
+	 * @param view
+	 *            : Progress view to keep for later use
+	 */
+	public void release(int layoutId, View view) {
+		if (view == null || view.getParent() != null)
+			return;
+
+		view.clearAnimation();
+		entries.addLast(new Entry(layoutId, view));
+		trimToSize(maxSize);
+	}
+
+	/** Removes all idle views from pool */
+	public void clear() {
+		entries.clear();
+	}
+
+	private void trimToSize(int size) {
+		while (entries.size() > size) {
+			entries.removeFirst();
+			evictionCount++;
+		}
+	}
+
+	/**
+	 * @category Getter And Setter
+	 */
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 0)
+			throw new IllegalArgumentException("Max size can not be negative");
+
+		this.maxSize = maxSize;
+		trimToSize(maxSize);
+	}
+
+	/** Returns number of idle views in pool */
+	public int size() {
+		return entries.size();
+	}
+
+	public int getInflationCount() {
+		return inflationCount;
+	}
+
+	public int getReuseCount() {
+		return reuseCount;
+	}
+
+	public int getEvictionCount() {
+		return evictionCount;
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.yayandroid.progressedview;
+
+import android.view.View;
+
+/**
+ * 
+ * Listener whose background task returns a result, which is handed to
+ * onTaskFinished on uiThread. Result is passed by progressedView itself, so
+ * there is no need to keep it in a shared field between threads.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ * @param <T>
+ *            Type of task result
+ */
+public abstract class ProgressedResultListener<T> extends
+		ProgressedViewListener {
+
+	private ResultCache<T> resultCache;
+
+	/**
+	 * This method is called from background thread, so there should not be
+	 * touching views. Do whatever needs to do when user clicks child, and
+	 * return its result to get it on onTaskFinished.
+	 */
+	public abstract T doBackgroundTaskForResult(View view);
+
+	/**
+	 * Same as doBackgroundTaskForResult, with a token which gets cancelled
+	 * when task isn't needed anymore. Override this one instead to stop
+	 * early, result of a cancelled task is dropped
+	 */
+	public T doBackgroundTaskForResult(View view, CancellationToken token) {
+		return doBackgroundTaskForResult(view);
+	}
+
+	/**
+	 * This method is to notify user with result when everything has
+	 * completed. It runs on uiThread, after doBackgroundTaskForResult has
+	 * returned.
+	 */
+	public abstract void onTaskFinished(View view, T result);
+
+	/**
+	 * Returns key to cache result of task on given view by, null by default
+	 * which means results are never cached. Override it together with
+	 * setResultCache, results of different views and different requests
+	 * should have different keys. It is called on uiThread
+	 */
+	public String getCacheKey(View view) {
+		return null;
+	}
+
+	public ResultCache<T> getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Set cache to keep results in by getCacheKey. Then a click whose result
+	 * is cached completes instantly with onTaskFinished, without running
+	 * task or showing progress. If cached result is stale, onTaskFinished is
+	 * called with it right away, and once more with fresh result when task
+	 * has run again in background. Null means not to cache
+	 */
+	public void setResultCache(ResultCache<T> resultCache) {
+		this.resultCache = resultCache;
+	}
+
+	@Override
+	public final void doBackgroundTask(View view) {
+		doBackgroundTaskForResult(view);
+	}
+
+	@Override
+	public final void doBackgroundTask(View view, CancellationToken token) {
+		doBackgroundTaskForResult(view, token);
+	}
+
+	@Override
+	public final void onTaskFinished(View view) {
+		onTaskFinished(view, null);
+	}
+
+	@Override
+	Object RunBackgroundTask(View view, CancellationToken token) {
+		return doBackgroundTaskForResult(view, token);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	void DeliverResult(View view, Object result) {
+		// Result has been returned by doBackgroundTaskForResult of this same
+		// listener, so it is a T
+		onTaskFinished(view, (T) result);
+	}
+
+	@Override
+	String CacheKey(View view) {
+		return resultCache == null ? null : getCacheKey(view);
+	}
+
+	@Override
+	ResultCache<?> Cache() {
+		return resultCache;
+	}
+
+	@Override
+	Object LoadResult(String key) {
+		ResultCache<T> cache = resultCache;
+		ResultCache.Entry<T> entry = cache == null ? null : cache.Load(key);
+		return entry == null || entry.isStale() ? null : entry.getValue();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	void StoreResult(String key, Object result) {
+		ResultCache<T> cache = resultCache;
+		if (cache != null)
+			cache.Put(key, (T) result);
+	}
+
+}
@@ -1,10 +1,15 @@
 package com.yayandroid.progressedview;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.yayandroid.utility.ProgressTicker;
+
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
+import android.graphics.RectF;
 import android.util.AttributeSet;
 import android.view.View;
 
@@ -13,12 +18,35 @@ public class ProgressedSeek extends View {
 	private Paint bgPaint, pbPaint;
 	private int bgColor = Color.DKGRAY;
 	private int pbColor = Color.GRAY;
-	private Rect bgRect;
-	private Rect pbRect;
-	private int progress = 0;
+	private RectF bgRect;
+	private RectF pbRect;
+	private Paint spinnerPaint;
+	private RectF spinnerRect;
+	/** Pixels spinner covers, only they are invalidated while it spins */
+	private Rect spinnerDirtyRect;
+	private boolean isSeekVisible = true;
+	private boolean isSpinnerVisible = false;
+	private volatile long fraction = 0;
+	private long renderedFraction = 0;
+	private float renderedWidth = 0;
+	private int renderedUpdateCount = 0;
+	private int tweenDuration = 0;
+	private FrameJankTracker jankTracker;
+	private long lastFrameTimeNanos = 0;
+	private final AtomicInteger publishedUpdateCount = new AtomicInteger(0);
 	private final int MAX_VALUE = 100;
 	private final int MIN_VALUE = 0;
 
+	/** Progress is kept as fixed-point fraction, FULL means completed */
+	private static final int FRACTION_BITS = 31;
+	private static final long FULL = 1L << FRACTION_BITS;
+	/** Sub-pixel precision of progress width */
+	private static final int SUBPIXEL_BITS = 8;
+	/** Frame time to assume for the first frame of a tween */
+	private static final long DEFAULT_FRAME_NANOS = 16666667;
+	/** Tween stops once it gets closer to target than this */
+	private static final float TWEEN_SNAP_PIXELS = 0.5f;
+
 	public ProgressedSeek(Context context) {
 		super(context);
 		Init();
@@ -35,10 +63,13 @@ public class ProgressedSeek extends View {
 	}
 
 	private void Init() {
-		this.bgRect = new Rect(0, 0, 0, 0);
-		this.pbRect = new Rect(0, 0, 0, 0);
+		this.bgRect = new RectF();
+		this.pbRect = new RectF();
 		this.bgPaint = new Paint();
 		this.pbPaint = new Paint();
+		this.spinnerRect = new RectF();
+		this.spinnerDirtyRect = new Rect();
+		this.spinnerPaint = ProgressedSpinner.CreatePaint(Color.WHITE);
 	}
 
 	public void setBackgroundColor(int color) {
@@ -49,33 +80,225 @@ public class ProgressedSeek extends View {
 		this.pbColor = color;
 	}
 
+	/**
+	 * Set false to draw just background, without progress
+	 */
+	public void setSeekVisible(boolean isSeekVisible) {
+		this.isSeekVisible = isSeekVisible;
+		invalidate();
+	}
+
+	/**
+	 * Set true to draw a spinner on top of seek, so seek and spinner can be
+	 * drawn by this single view
+	 */
+	public void setSpinnerVisible(boolean isSpinnerVisible) {
+		this.isSpinnerVisible = isSpinnerVisible;
+		invalidate();
+	}
+
+	public void setSpinnerColor(int color) {
+		spinnerPaint.setColor(color);
+	}
+
+	/**
+	 * Set progress value, it can be called from any thread. Updates are
+	 * rendered at most once per frame, however many times it is called
+	 * 
+	 * @param value
+	 *            : integer value, which should be between 0 - 100
+	 */
 	public void setProgress(int value) {
-		this.progress = value;
-		postInvalidate();
+		if (value >= MAX_VALUE)
+			Publish(FULL);
+		else if (value <= MIN_VALUE)
+			Publish(0);
+		else
+			Publish((value * FULL) / MAX_VALUE);
 	}
 
-	private int getProgressWidth() {
+	/**
+	 * Set progress as done out of total, e.g. bytes of a download. It can be
+	 * called from any thread, and it doesn't allocate or lock
+	 * 
+	 * @param done
+	 *            : Amount of work which is completed
+	 * @param total
+	 *            : Total amount of work
+	 */
+	public void publishProgress(long done, long total) {
+		if (total <= 0 || done <= 0) {
+			Publish(0);
+			return;
+		}
+		if (done >= total) {
+			Publish(FULL);
+			return;
+		}
+
+		// Drop lowest bits until total fits in 32 bits, so shifting done by
+		// FRACTION_BITS can not overflow
+		int shift = 32 - Long.numberOfLeadingZeros(total);
+		if (shift > 0) {
+			done >>>= shift;
+			total >>>= shift;
+		}
+		Publish((done << FRACTION_BITS) / total);
+	}
+
+	/** Returns progress between 0 and 1 */
+	public float getProgressFraction() {
+		return (float) fraction / FULL;
+	}
+
+	private void Publish(long fraction) {
+		this.fraction = fraction;
+		publishedUpdateCount.incrementAndGet();
+		ProgressTicker.getInstance().Start(renderFrame);
+	}
+
+	/**
+	 * Tickable to render latest progress, by invalidating only the strip
+	 * between previously rendered and new progress widths. It is advanced by
+	 * shared ProgressTicker together with every other seek and transition
+	 */
+	private final ProgressTicker.Tickable renderFrame = new ProgressTicker.Tickable() {
+
+		@Override
+		protected boolean onTick(long frameTimeNanos) {
+			long target = fraction;
+			renderedFraction = getTweenedFraction(target, frameTimeNanos);
+			renderedUpdateCount++;
+			if (jankTracker != null)
+				jankTracker.OnSeekFrame();
+
+			float width = getProgressWidth(renderedFraction);
+			if (width != renderedWidth) {
+				invalidate((int) Math.min(width, renderedWidth), 0,
+						(int) Math.ceil(Math.max(width, renderedWidth)),
+						getMeasuredHeight());
+				renderedWidth = width;
+			}
+
+			// Keep ticking only until tween reaches the target
+			if (renderedFraction != target) {
+				lastFrameTimeNanos = frameTimeNanos;
+				return true;
+			}
+			lastFrameTimeNanos = 0;
+			return false;
+		}
+
+	};
+
+	/**
+	 * Returns fraction to draw in this frame. Without tween it is the target
+	 * itself, otherwise it approaches target exponentially, so it never goes
+	 * beyond it. Going backwards is never tweened
+	 */
+	private long getTweenedFraction(long target, long frameTimeNanos) {
+		long current = renderedFraction;
+		if (tweenDuration <= 0 || target <= current)
+			return target;
+
+		long elapsed = lastFrameTimeNanos == 0 ? DEFAULT_FRAME_NANOS
+				: frameTimeNanos - lastFrameTimeNanos;
+		double step = 1 - Math.exp(-elapsed / (tweenDuration * 1000000d));
+		long next = current + (long) Math.ceil((target - current) * step);
+
+		float remaining = getProgressWidth(target) - getProgressWidth(next);
+		if (next >= target || remaining < TWEEN_SNAP_PIXELS)
+			return target;
+		return next;
+	}
+
+	/**
+	 * Set time constant of tween between progress updates, so seek moves
+	 * smoothly towards latest value instead of jumping. 0 disables tween
+	 * 
+	 * @param tweenDuration
+	 *            : Time constant in milliseconds
+	 */
+	public void setTweenDuration(int tweenDuration) {
+		this.tweenDuration = Math.max(0, tweenDuration);
+	}
+
+	public int getTweenDuration() {
+		return tweenDuration;
+	}
+
+	/**
+	 * Set tracker to time frames while progress is rendering, null to stop
+	 */
+	public void setJankTracker(FrameJankTracker jankTracker) {
+		this.jankTracker = jankTracker;
+	}
+
+	/** Returns how many times progress has been set */
+	public int getPublishedUpdateCount() {
+		return publishedUpdateCount.get();
+	}
+
+	/** Returns how many frames have rendered progress, including tween */
+	public int getRenderedUpdateCount() {
+		return renderedUpdateCount;
+	}
+
+	/**
+	 * Returns width for given fraction with sub-pixel precision. Width is
+	 * below 2^31 and fraction is at most 2^31, so product fits in a long
+	 */
+	private float getProgressWidth(long fraction) {
 		int width = getMeasuredWidth();
-		if (progress >= MAX_VALUE)
+		if (fraction >= FULL)
 			return width;
 
-		if (progress <= MIN_VALUE)
+		if (fraction <= 0)
 			return MIN_VALUE;
 
-		return ((width * progress) / MAX_VALUE);
+		long subpixels = (width * fraction) >>> (FRACTION_BITS - SUBPIXEL_BITS);
+		return (float) subpixels / (1 << SUBPIXEL_BITS);
+	}
+
+	@Override
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+		renderedWidth = getProgressWidth(renderedFraction);
+		ProgressedSpinner.MeasureArc(spinnerRect, spinnerPaint, w, h);
+
+		// Arc is stroked on its bounds, so half of stroke lies outside them
+		spinnerRect.roundOut(spinnerDirtyRect);
+		int stroke = (int) Math.ceil(spinnerPaint.getStrokeWidth());
+		spinnerDirtyRect.inset(-stroke, -stroke);
 	}
 
 	@Override
 	protected void onDraw(Canvas canvas) {
 		super.onDraw(canvas);
 
-		bgRect.set(0, 0, getMeasuredWidth(), getMeasuredHeight());
-		bgPaint.setColor(bgColor);
-		canvas.drawRect(bgRect, bgPaint);
+		// Background and progress are drawn next to each other, so every
+		// pixel gets painted only once
+		float progressWidth = isSeekVisible ? getProgressWidth(renderedFraction)
+				: 0;
+
+		if (progressWidth > 0) {
+			pbRect.set(0, 0, progressWidth, getMeasuredHeight());
+			pbPaint.setColor(pbColor);
+			canvas.drawRect(pbRect, pbPaint);
+		}
+
+		if (progressWidth < getMeasuredWidth()) {
+			bgRect.set(progressWidth, 0, getMeasuredWidth(),
+					getMeasuredHeight());
+			bgPaint.setColor(bgColor);
+			canvas.drawRect(bgRect, bgPaint);
+		}
 
-		pbRect.set(0, 0, getProgressWidth(), getMeasuredHeight());
-		pbPaint.setColor(pbColor);
-		canvas.drawRect(pbRect, pbPaint);
+		if (isSpinnerVisible) {
+			ProgressedSpinner.DrawArc(canvas, spinnerRect, spinnerPaint);
+			// Seek strip is invalidated by renderFrame, only spinner spins
+			invalidate(spinnerDirtyRect);
+		}
 	}
 
 }
@@ -0,0 +1,135 @@
+package com.yayandroid.progressedview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.View;
+
+/**
+ * 
+ * Lightweight indeterminate spinner which is drawn directly on canvas. Its
+ * size follows its own bounds continuously, and all instances read same clock
+ * so every visible spinner is at the same angle in a frame.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class ProgressedSpinner extends View {
+
+	private static final long REVOLUTION_DURATION = 1000;
+	private static final float SWEEP_ANGLE = 270;
+	private static final float SIZE_RATIO = 0.5f;
+	private static final float STROKE_RATIO = 0.1f;
+
+	private Paint paint;
+	private RectF arcRect;
+	private int color = Color.WHITE;
+
+	public ProgressedSpinner(Context context) {
+		super(context);
+		Init();
+	}
+
+	public ProgressedSpinner(Context context, AttributeSet attrs) {
+		super(context, attrs);
+		Init();
+	}
+
+	public ProgressedSpinner(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle);
+		Init();
+	}
+
+	private void Init() {
+		this.arcRect = new RectF();
+		this.paint = CreatePaint(color);
+	}
+
+	/**
+	 * Returns a paint to draw spinner arc with
+	 * 
+	 * @param color
+	 *            : Color of arc
+	 */
+	static Paint CreatePaint(int color) {
+		Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+		paint.setStyle(Paint.Style.STROKE);
+		paint.setStrokeCap(Paint.Cap.ROUND);
+		paint.setColor(color);
+		return paint;
+	}
+
+	/**
+	 * Calculates arc bounds and stroke width up to given size
+	 * 
+	 * @param arcRect
+	 *            : Rect to set arc bounds in
+	 * @param paint
+	 *            : Paint to set stroke width on
+	 * @param w
+	 *            : Width of area which spinner is drawn in
+	 * @param h
+	 *            : Height of area which spinner is drawn in
+	 */
+	static void MeasureArc(RectF arcRect, Paint paint, int w, int h) {
+		float diameter = Math.min(w, h) * SIZE_RATIO;
+		float stroke = Math.max(1, diameter * STROKE_RATIO);
+		float radius = (diameter - stroke) / 2;
+		paint.setStrokeWidth(stroke);
+		arcRect.set(w / 2f - radius, h / 2f - radius, w / 2f + radius, h / 2f
+				+ radius);
+	}
+
+	/**
+	 * Draws spinner arc at shared angle
+	 * 
+	 * @param canvas
+	 *            : Canvas to draw on
+	 * @param arcRect
+	 *            : Arc bounds calculated by MeasureArc
+	 * @param paint
+	 *            : Paint created by CreatePaint
+	 */
+	static void DrawArc(Canvas canvas, RectF arcRect, Paint paint) {
+		if (!arcRect.isEmpty())
+			canvas.drawArc(arcRect, getSharedAngle(), SWEEP_ANGLE, false,
+					paint);
+	}
+
+	public void setColor(int color) {
+		this.color = color;
+		paint.setColor(color);
+		invalidate();
+	}
+
+	/**
+	 * Returns current angle of all spinners, it is calculated from uptime so
+	 * there is only one animation clock for every instance
+	 */
+	public static float getSharedAngle() {
+		long time = SystemClock.uptimeMillis() % REVOLUTION_DURATION;
+		return (360f * time) / REVOLUTION_DURATION;
+	}
+
+	@Override
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+		MeasureArc(arcRect, paint, w, h);
+	}
+
+	@Override
+	protected void onDraw(Canvas canvas) {
+		super.onDraw(canvas);
+
+		DrawArc(canvas, arcRect, paint);
+
+		// Keep spinning as long as it gets drawn
+		if (getVisibility() == View.VISIBLE)
+			invalidate();
+	}
+
+}
@@ -1,25 +1,41 @@
 package com.yayandroid.progressedview;
 
+import com.yayandroid.progressedview.ProgressedViewMetrics.Phase;
 import com.yayandroid.utility.AnimationHelper;
-import com.yayandroid.utility.AnimationHelper.AnimDirection;
+import com.yayandroid.utility.AnimationCache;
+import com.yayandroid.utility.AnimationSpec;
+import com.yayandroid.utility.LookupInterpolator;
+import com.yayandroid.utility.PropertyAnimationHelper;
+import com.yayandroid.utility.PropertyAnimationHelper.LayerListener;
+import com.yayandroid.utility.ProgressTicker;
+import com.yayandroid.utility.RingExecutor;
+import com.yayandroid.utility.TaskExecutor;
+import com.yayandroid.utility.TickedTransition;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Color;
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue.IdleHandler;
+import android.os.SystemClock;
 import android.util.AttributeSet;
-import android.util.DisplayMetrics;
 import android.util.Log;
-import android.view.Display;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
-import android.view.WindowManager;
+import android.view.ViewConfiguration;
 import android.view.ViewTreeObserver;
 import android.view.ViewTreeObserver.OnPreDrawListener;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.AccelerateInterpolator;
 import android.view.animation.Animation;
 import android.view.animation.Animation.AnimationListener;
+import android.view.animation.AnimationUtils;
 import android.view.animation.AnticipateInterpolator;
 import android.view.animation.AnticipateOvershootInterpolator;
 import android.view.animation.BounceInterpolator;
@@ -28,7 +44,6 @@ import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 import android.view.animation.OvershootInterpolator;
-import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
 
 /**
@@ -42,36 +57,155 @@ public class ProgressedView extends RelativeLayout {
 	private View child;
 	private View progress;
 	private ProgressedSeek seek;
-	private ProgressBar pb;
+	private ProgressedSpinner pb;
 	private View animatingSource, animatingTarget;
-	private Interpolator interpolation = new LinearInterpolator();
+	private AnimationSpec animatingSourceSpec, animatingTargetSpec;
+	private long transitionStartTime;
+	private Interpolator interpolation = DEFAULT_INTERPOLATION;
+	private int interpolationType = -1;
+	private int interpolationResolution = LookupInterpolator.DEFAULT_RESOLUTION;
 	private LayoutInflater inflater;
+	private Executor taskExecutor;
+	private ProgressOverlayPool overlayPool;
+	private final Handler uiHandler = new Handler(Looper.getMainLooper());
+	/**
+	 * Task is reused on every run, it is replaced only when cancelled. It is
+	 * read by worker threads to tell whether they still run current task
+	 */
+	private volatile Task task = new Task();
+	/**
+	 * Counts runs started or abandoned, a run marks its phases only while
+	 * cycle it has started in is still current
+	 */
+	private volatile int taskCycle = 0;
+	private AnimationCache animationCache;
+	private AnimationSpec[][] transitionSpecs;
+	private AnimationSpec steadySpec;
+	private int specDuration;
+	/**
+	 * Transition duration latched on click, so reverse takes as long as
+	 * forward even if task's latency updates adaptive duration in between
+	 */
+	private int cycleTransitionTime = -1;
+	private Interpolator specInterpolation;
+	private LayerListener sourceLayerListener, targetLayerListener;
+	private TickedTransition tickedTransition;
 	private ProgressedViewListener progressListener;
 	private int backgroundColor = Color.DKGRAY;
 	private int seekBackgroundColor = Color.DKGRAY;
 	private int seekProgressColor = Color.GRAY;
+	private int spinnerColor = Color.WHITE;
+	private int seekTweenDuration = 0;
+	private int gracePeriod = 0;
+	private int shownOverlayCount = 0;
+	private int skippedOverlayCount = 0;
+	private int cachedCompletionCount = 0;
+	private int joinedTaskCount = 0;
+	private int cancelledTaskCount = 0;
+	private TaskFlight joinedFlight;
 	private boolean isTaskRunning = false;
-	private boolean hasAttachedSuccessfully = false;
 	private boolean isReversingAnimation = false;
 	private boolean isAnimating = false;
-	private boolean isOccupied = false;
 	private boolean shouldReverseAnimation = true;
 	private boolean shouldSourceRemainSteady = false;
 	private boolean shouldBringTargetFront = false;
 	private boolean enabled = true;
+	private boolean hasPendingClick = false;
+	/** User has clicked during reverse, click is performed once it ends */
+	private boolean hasQueuedClick = false;
+	/** Task has finished and its result waits for reverse to end */
+	private boolean hasFinishedTask = false;
+	private boolean isOverlayPending = false;
+	private boolean isRevalidating = false;
+	private boolean isCancelling = false;
+	private boolean isTapToCancel = false;
+	private int touchSlop;
+	private float touchDownX, touchDownY;
+	private boolean shouldFlattenProgress = false;
 
 	private final String LOG = "ProgressedView";
+	/**
+	 * Interpolators are stateless, so all views share same instances. Views
+	 * use them through LookupInterpolators, unless resolution is set to 0
+	 */
+	private static final Interpolator DEFAULT_INTERPOLATION =
+			new LinearInterpolator();
+	private static final Interpolator[] INTERPOLATIONS = new Interpolator[] {
+			new AccelerateInterpolator(), new DecelerateInterpolator(),
+			new AccelerateDecelerateInterpolator(),
+			new AnticipateInterpolator(), new OvershootInterpolator(),
+			new AnticipateOvershootInterpolator(), new CycleInterpolator(1),
+			new BounceInterpolator() };
+
+	/**
+	 * Source and target animations of each AnimationType, in order of
+	 * declaration. Translations are relative to size of this view
+	 */
+	private static final AnimationSpec[][] TRANSITIONS = new AnimationSpec[][] {
+			// SWIPE_LEFT_TO_RIGHT
+			{ AnimationSpec.TranslateX(0, 1).Notifying(),
+					AnimationSpec.TranslateX(-1, 0).Notifying() },
+			// SWIPE_RIGHT_TO_LEFT
+			{ AnimationSpec.TranslateX(0, -1).Notifying(),
+					AnimationSpec.TranslateX(1, 0).Notifying() },
+			// SWIPE_TOP_TO_BOTTOM
+			{ AnimationSpec.TranslateY(0, 1).Notifying(),
+					AnimationSpec.TranslateY(-1, 0).Notifying() },
+			// SWIPE_BOTTOM_TO_TOP
+			{ AnimationSpec.TranslateY(0, -1).Notifying(),
+					AnimationSpec.TranslateY(1, 0).Notifying() },
+			// SCALE_IN
+			{ AnimationSpec.Together(AnimationSpec.Scale(1, 0.5f).Notifying(),
+					AnimationSpec.Alpha(1.0f, 0)),
+					AnimationSpec.Together(AnimationSpec.Scale(1.5f, 1),
+							AnimationSpec.Alpha(0, 1.0f)) },
+			// SCALE_OUT
+			{ AnimationSpec.Together(AnimationSpec.Scale(1, 1.5f).Notifying(),
+					AnimationSpec.Alpha(1.0f, 0)),
+					AnimationSpec.Together(AnimationSpec.Scale(0.5f, 1),
+							AnimationSpec.Alpha(0, 1.0f)) },
+			// ALPHA
+			{ AnimationSpec.Alpha(1.0f, 0).Notifying(),
+					AnimationSpec.Alpha(0, 1.0f) } };
+
+	/** Animation to make source remain steady */
+	private static final AnimationSpec STEADY = AnimationSpec.Alpha(1.0f, 1.0f)
+			.Notifying();
+	/** Interpolation type of interpolators which are set from code */
+	private static final int CUSTOM_INTERPOLATION = -2;
+	/** Scale to pass shared progress to a view joining a task with */
+	private static final long SHARED_PROGRESS_SCALE = 10000;
 	private final int DEFAULT_PROGRESS_LAYOUT = R.layout.default_progress;
 	private final int DEFAULT_ANIMATION_DURATION = 300;
+	private final int DEFAULT_MIN_ANIMATION_DURATION = 100;
+	/** Adaptive durations are rounded to steps, to keep specs from churning */
+	private final int ADAPTIVE_DURATION_STEP = 25;
+	/**
+	 * Time to wait after a transition's duration before it is ended without
+	 * its callback, e.g. since a view which isn't drawn never starts it
+	 */
+	private final int TRANSITION_END_TIMEOUT = 500;
 	private final AnimationType DEFAULT_ANIMATION_TYPE = AnimationType.SCALE_IN;
 	private final AnimationType DEFAULT_REVERSE_ANIMATION_TYPE = AnimationType.SCALE_OUT;
-	private int LIMIT_FOR_SMALL_PROGRESS = 100;
-	private int LIMIT_FOR_BIG_PROGRESS = 250;
 	private int progressLayoutId = DEFAULT_PROGRESS_LAYOUT;
 	private int animationTime = DEFAULT_ANIMATION_DURATION;
+	private int minAnimationTime = DEFAULT_MIN_ANIMATION_DURATION;
+	private boolean isAdaptiveAnimation = false;
 	private ProgressType progressType = ProgressType.JUST_INDETERMINATE;
 	private AnimationType animationType = DEFAULT_ANIMATION_TYPE;
 	private AnimationType reversingAnimationType = DEFAULT_REVERSE_ANIMATION_TYPE;
+	private AttachState attachState = AttachState.EMPTY;
+	private InflationType inflationType = InflationType.EAGER;
+	private AnimationBackend animationBackend = AnimationBackend.VIEW;
+	private TaskStartType taskStartType = TaskStartType.AFTER_TRANSITION;
+	private Speculation speculation = Speculation.NONE;
+	private int speculativeTaskCount = 0;
+	private int cancelledSpeculationCount = 0;
+	private volatile ProgressedViewMetrics metrics;
+	private FrameJankTracker jankTracker;
+	private AnimationType animatingType;
+	private int progressInflationCount = 0;
+	private int preDrawListenerCount = 0;
 
 	/**
 	 * Enumeration to determine which progress style should perform on click
@@ -93,6 +227,73 @@ public class ProgressedView extends RelativeLayout {
 		SWIPE_LEFT_TO_RIGHT, SWIPE_RIGHT_TO_LEFT, SWIPE_TOP_TO_BOTTOM, SWIPE_BOTTOM_TO_TOP, SCALE_IN, SCALE_OUT, ALPHA
 	}
 
+	/**
+	 * Enumeration to determine when progress layout should get inflated.
+	 * EAGER: as soon as child is applied, ON_TOUCH: when user touches down to
+	 * child for the first time, ON_IDLE: when uiThread has nothing else to do
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public enum InflationType {
+		EAGER, ON_TOUCH, ON_IDLE
+	}
+
+	/**
+	 * Enumeration to determine how transitions should animate. VIEW: with
+	 * view animations, PROPERTY: with property animations on hardware layers,
+	 * TICKER: on hardware layers as well, but advanced by shared ProgressTicker
+	 * together with all other transitions and seeks in one callback per frame.
+	 * PROPERTY and TICKER fall back to VIEW on devices below Honeycomb MR1
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public enum AnimationBackend {
+		VIEW, PROPERTY, TICKER
+	}
+
+	/**
+	 * Enumeration to determine when background task should start.
+	 * AFTER_TRANSITION: when progress has fully shown up, WITH_TRANSITION: on
+	 * click, together with transition, ON_TOUCH_DOWN: speculatively when user
+	 * touches down, it is cancelled if touch turns into a scroll or gets
+	 * cancelled. With ON_TOUCH_DOWN, doBackgroundTask may run without a
+	 * click, so it should be safe to run and throw away
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public enum TaskStartType {
+		AFTER_TRANSITION, WITH_TRANSITION, ON_TOUCH_DOWN
+	}
+
+	/**
+	 * Enumeration to keep track of a task started on touch down, before
+	 * click. NONE: there is no such task, RUNNING: task is running and waits
+	 * for click, FINISHED: task has finished before click
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	private enum Speculation {
+		NONE, RUNNING, FINISHED
+	}
+
+	/**
+	 * Enumeration to keep track of progress attachment, so progress layout
+	 * gets inflated only once per child. EMPTY: there is no child applied yet,
+	 * APPLIED: child is applied but progress is not inflated yet, PENDING:
+	 * progress is inflated and waiting for first preDraw to get added,
+	 * ATTACHED: progress is added next to child
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	private enum AttachState {
+		EMPTY, APPLIED, PENDING, ATTACHED
+	}
+
 	/**
 	 * Abstract class to notify ui when user clicks to childView, do task
 	 * onBackground and then notify back ui onFinish. If loading progress has
@@ -106,7 +307,8 @@ public class ProgressedView extends RelativeLayout {
 		/**
 		 * This method is to update seekBar on default progressLayout. It can be
 		 * used just like in AsyncTask. If you are using default layout, it will
-		 * automatically update seekBar
+		 * automatically update seekBar. It has to be called from the thread
+		 * which runs doBackgroundTask, progress of a cancelled task is dropped
 		 * 
 		 * @param value
 		 *            : integer value, which should be between 0 - 100
@@ -114,6 +316,20 @@ public class ProgressedView extends RelativeLayout {
 		public void publishProgressToSeek(int value) {
 			SetProgress(value);
 		}
+
+		/**
+		 * This method is to update seekBar with exact amounts, e.g. bytes of
+		 * a download which can be larger than integer range. It is safe to
+		 * call as often as needed, seekBar renders it at most once per frame
+		 * 
+		 * @param done
+		 *            : Amount of work which is completed
+		 * @param total
+		 *            : Total amount of work
+		 */
+		public void publishProgressToSeek(long done, long total) {
+			SetProgress(done, total);
+		}
 	}
 
 	public ProgressedView(Context context) {
@@ -146,8 +362,26 @@ public class ProgressedView extends RelativeLayout {
 		this.seekProgressColor = ta
 				.getColor(R.styleable.ProgressedView_defaultSeekProgressColor,
 						Color.GRAY);
+		this.spinnerColor = ta.getColor(
+				R.styleable.ProgressedView_defaultSpinnerColor, Color.WHITE);
+		this.seekTweenDuration = ta.getInteger(
+				R.styleable.ProgressedView_seekTweenDuration, 0);
+		this.isAdaptiveAnimation = ta.getBoolean(
+				R.styleable.ProgressedView_adaptiveAnimation, false);
+		this.minAnimationTime = ta.getInteger(
+				R.styleable.ProgressedView_minAnimationTime,
+				DEFAULT_MIN_ANIMATION_DURATION);
+		this.gracePeriod = ta.getInteger(R.styleable.ProgressedView_gracePeriod,
+				0);
+		this.interpolationResolution = ta.getInteger(
+				R.styleable.ProgressedView_interpolationResolution,
+				LookupInterpolator.DEFAULT_RESOLUTION);
 		this.enabled = ta.getBoolean(R.styleable.ProgressedView_progressEnable,
 				true);
+		this.shouldFlattenProgress = ta.getBoolean(
+				R.styleable.ProgressedView_flatProgress, false);
+		this.isTapToCancel = ta.getBoolean(
+				R.styleable.ProgressedView_tapToCancel, false);
 
 		AnimationType[] anims = AnimationType.values();
 
@@ -164,6 +398,24 @@ public class ProgressedView extends RelativeLayout {
 			this.shouldReverseAnimation = false;
 		}
 
+		int inflation = ta.getInteger(
+				R.styleable.ProgressedView_progressInflation, -1);
+		if (inflation != -1) {
+			this.inflationType = InflationType.values()[inflation];
+		}
+
+		int taskStart = ta.getInteger(R.styleable.ProgressedView_taskStart,
+				-1);
+		if (taskStart != -1) {
+			this.taskStartType = TaskStartType.values()[taskStart];
+		}
+
+		int backend = ta.getInteger(
+				R.styleable.ProgressedView_animationBackend, -1);
+		if (backend != -1) {
+			this.animationBackend = AnimationBackend.values()[backend];
+		}
+
 		ProgressType[] progTypes = ProgressType.values();
 		int pType = ta.getInteger(R.styleable.ProgressedView_progressType, -1);
 		if (pType != -1) {
@@ -187,30 +439,22 @@ public class ProgressedView extends RelativeLayout {
 				Context.LAYOUT_INFLATER_SERVICE);
 
 		setClipChildren(true);
-
-		float density = GetScreenDensity();
-		LIMIT_FOR_SMALL_PROGRESS *= density;
-		LIMIT_FOR_BIG_PROGRESS *= density;
-	}
-
-	private float GetScreenDensity() {
-		Display display = ((WindowManager) getContext().getSystemService(
-				Context.WINDOW_SERVICE)).getDefaultDisplay();
-		DisplayMetrics dm = new DisplayMetrics();
-		display.getMetrics(dm);
-		return dm.density;
+		touchSlop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+		animationCache = new AnimationCache(progressedAnimListener);
 	}
 
 	@Override
 	protected void onLayout(boolean changed, int l, int t, int r, int b) {
 		super.onLayout(changed, l, t, r, b);
 
-		if ((!isOccupied && getChildCount() > 1)
-				|| (isOccupied && getChildCount() > 2))
+		if ((attachState != AttachState.ATTACHED && getChildCount() > 1)
+				|| getChildCount() > 2)
 			throw new IllegalStateException(
 					"ProgressedView can host only one child");
 
-		if (getChildCount() == 1)
+		// Apply only once, every other layout pass until first draw would
+		// inflate progress layout again otherwise
+		if (attachState == AttachState.EMPTY && getChildCount() == 1)
 			applyProgress(getChildAt(0), animationType, progressLayoutId);
 
 	}
@@ -225,7 +469,7 @@ public class ProgressedView extends RelativeLayout {
 	 *         applied, false otherwise
 	 */
 	public boolean applyProgress(View view) {
-		return this.isOccupied = apply(view, null, progressLayoutId);
+		return apply(view, null, progressLayoutId);
 	}
 
 	/**
@@ -240,7 +484,7 @@ public class ProgressedView extends RelativeLayout {
 	 *         applied, false otherwise
 	 */
 	public boolean applyProgress(View view, AnimationType animationType) {
-		return this.isOccupied = apply(view, animationType, progressLayoutId);
+		return apply(view, animationType, progressLayoutId);
 	}
 
 	/**
@@ -259,11 +503,20 @@ public class ProgressedView extends RelativeLayout {
 	 */
 	public boolean applyProgress(View view, AnimationType animationType,
 			int progressLayout) {
-		return this.isOccupied = apply(view, animationType, progressLayout);
+		return apply(view, animationType, progressLayout);
 	}
 
-	/** Call to remove progress by reversing animation */
+	/**
+	 * Call to remove progress by reversing animation. If progress is still
+	 * showing up, it turns back from where it is
+	 */
 	public void removeProgress() {
+		if (isAnimating) {
+			if (!isReversingAnimation)
+				RewindTransition();
+			return;
+		}
+
 		isReversingAnimation = true;
 		switchViewsWithAnimation(progress, child, reversingAnimationType);
 	}
@@ -287,95 +540,575 @@ public class ProgressedView extends RelativeLayout {
 
 		// If it is already occupied by another view, then return false to
 		// notify user that progress didn't get applied
-		if (isOccupied) {
+		if (attachState != AttachState.EMPTY) {
 			return false;
 			// throw new
 			// IllegalStateException("ProgressedView already has a child");
 		}
 
+		// Check observer before inflating anything, so a failed attempt
+		// doesn't leave an inflated progress behind
+		ViewTreeObserver observer = view.getViewTreeObserver();
+		if (observer == null || !observer.isAlive()) {
+			Log.e(LOG,
+					"Error! Progress couldn't get attached to view because of ViewTreeObserver was not alive.");
+			return false;
+		}
+
 		// Store values
 		this.child = view;
 		this.progressLayoutId = progressLayout;
-		this.progress = inflater.inflate(progressLayout, this, false);
-		if (progressLayoutId == DEFAULT_PROGRESS_LAYOUT) {
-			progress.setBackgroundColor(backgroundColor);
-		}
 		this.animationType = animationType;
 		if (shouldReverseAnimation)
 			this.reversingAnimationType = getReverseAnimationType(animationType);
-		UpdateSeekBar();
+		attachState = AttachState.APPLIED;
 
-		// Set sourceView's clickListener
+		// Set sourceView's clickListener, touches are watched by
+		// dispatchTouchEvent so its touch listener is left to app
 		view.setOnClickListener(progressedClickListener);
 
-		// Add a onPreDrawListener to get view's sizes whenever attach to window
-		ViewTreeObserver observer = view.getViewTreeObserver();
-		if (observer != null && observer.isAlive()) {
-			observer.addOnPreDrawListener(new OnPreDrawListener() {
-
-				@Override
-				public boolean onPreDraw() {
-
-					// Remove onPreDrawListener
-					view.getViewTreeObserver().removeOnPreDrawListener(this);
-
-					// Get source view's layoutParams set its width and height
-					// to progress view, so progress will place in same area
-					// with source view and it'll have same size of source view
-					LayoutParams lp = (LayoutParams) view.getLayoutParams();
-					lp.width = view.getWidth();
-					lp.height = view.getHeight();
-
-					// If progressLayout is not custom, then calculate and
-					// determine progressBar size up to view's width and height
-					if (progressLayoutId == DEFAULT_PROGRESS_LAYOUT)
-						CalculateProgressSize(view.getWidth(), view.getHeight());
-
-					// Finally add progressView also to parent of sourceView,
-					// and set progressView invisible by default
-					addView(progress, lp);
-					progress.setVisibility(View.GONE);
-					UpdateSeekBar();
-
-					hasAttachedSuccessfully = true;
-					return true;
-				}
+		// Pooled progress gets borrowed on click
+		if (overlayPool != null)
+			return true;
+
+		switch (inflationType) {
+		case EAGER:
+			InflateProgress();
+			break;
+		case ON_TOUCH:
+			// dispatchTouchEvent inflates it on first touch down
+			break;
+		case ON_IDLE:
+			Looper.myQueue().addIdleHandler(lazyIdleHandler);
+			break;
+		}
 
-			});
+		return true;
+	}
 
-		} else {
+	/**
+	 * Inflates progress layout and adds it next to child on next preDraw, if
+	 * it is not inflated yet
+	 */
+	private void InflateProgress() {
+		if (attachState != AttachState.APPLIED)
+			return;
+
+		final View view = child;
+		ViewTreeObserver observer = view.getViewTreeObserver();
+		if (observer == null || !observer.isAlive()) {
 			Log.e(LOG,
 					"Error! Progress couldn't get attached to view because of ViewTreeObserver was not alive.");
-			return false;
+			return;
+		}
+
+		this.progress = CreateProgress();
+		progressInflationCount++;
+		UpdateBackground();
+		UpdateSeekBar();
+
+		// Add a onPreDrawListener to get view's sizes whenever attach to window
+		attachState = AttachState.PENDING;
+		preDrawListenerCount++;
+		observer.addOnPreDrawListener(new OnPreDrawListener() {
+
+			@Override
+			public boolean onPreDraw() {
+
+				// Remove onPreDrawListener
+				view.getViewTreeObserver().removeOnPreDrawListener(this);
+
+				AttachProgress(view);
+
+				// User has already clicked while progress was being attached
+				if (hasPendingClick) {
+					hasPendingClick = false;
+					progressedClickListener.onClick(view);
+				}
+				return true;
+			}
+
+		});
+
+		// Lazy inflation can happen after view has already been drawn, so
+		// make sure there will be a preDraw
+		view.invalidate();
+	}
+
+	/**
+	 * Adds progress next to given source view, with exact same size
+	 * 
+	 * @param view
+	 *            : Source view which progress will be placed on
+	 */
+	private void AttachProgress(View view) {
+		// Get source view's layoutParams set its width and height to progress
+		// view, so progress will place in same area with source view and it'll
+		// have same size of source view
+		LayoutParams lp = (LayoutParams) view.getLayoutParams();
+		lp.width = view.getWidth();
+		lp.height = view.getHeight();
+
+		// If progressLayout is not custom, then prepare spinner, it sizes
+		// itself up to view's width and height
+		if (progressLayoutId == DEFAULT_PROGRESS_LAYOUT)
+			UpdateSpinner();
+
+		// Finally add progressView also to parent of sourceView, and set
+		// progressView invisible by default
+		addView(progress, lp);
+		progress.setVisibility(View.GONE);
+		UpdateSeekBar();
+		UpdateOverlayTap();
+
+		attachState = AttachState.ATTACHED;
+	}
+
+	/**
+	 * Creates progress view. If flattening is on for default layout, then it
+	 * is a single ProgressedSeek which draws background, seek and spinner
+	 * itself without any view hierarchy. Otherwise progress layout is
+	 * borrowed from overlayPool or inflated
+	 */
+	private View CreateProgress() {
+		if (shouldFlattenProgress
+				&& progressLayoutId == DEFAULT_PROGRESS_LAYOUT) {
+			ProgressedSeek flat = new ProgressedSeek(getContext());
+			flat.setId(R.id.seek);
+			return flat;
 		}
 
+		if (overlayPool != null)
+			return overlayPool.acquire(inflater, progressLayoutId, this);
+
+		return inflater.inflate(progressLayoutId, this, false);
+	}
+
+	/** Returns true if progress is a single flat ProgressedSeek */
+	private boolean isProgressFlat() {
+		return progress instanceof ProgressedSeek;
+	}
+
+	/**
+	 * Borrows a progress from overlayPool and attaches it next to child
+	 */
+	private void BorrowProgress() {
+		this.progress = CreateProgress();
+		UpdateBackground();
+		AttachProgress(child);
+	}
+
+	/**
+	 * Detaches progress and gives it back to overlayPool
+	 */
+	private void ReleaseProgress() {
+		if (progress == null)
+			return;
+
+		View released = progress;
+		removeView(released);
+		this.progress = null;
+		this.seek = null;
+		task.seek = null;
+		this.pb = null;
+		attachState = AttachState.APPLIED;
+		if (!(released instanceof ProgressedSeek))
+			overlayPool.release(progressLayoutId, released);
+	}
+
+	/** Runnable to release progress out of draw pass */
+	private final Runnable releaseProgress = new Runnable() {
+
+		@Override
+		public void run() {
+			if (overlayPool != null && !isAnimating && !isTaskRunning)
+				ReleaseProgress();
+		}
+
+	};
+
+	/** Runnable to perform click which has come during reverse */
+	private final Runnable performQueuedClick = new Runnable() {
+
+		@Override
+		public void run() {
+			if (hasQueuedClick) {
+				hasQueuedClick = false;
+				progressedClickListener.onClick(child);
+			}
+		}
+
+	};
+
+	/** Runnable to show progress when task outlasts grace period */
+	private final Runnable showOverlay = new Runnable() {
+
+		@Override
+		public void run() {
+			if (isOverlayPending) {
+				isOverlayPending = false;
+				ShowOverlay();
+			}
+		}
+
+	};
+
+	/** Switches child to progress with animation */
+	private void ShowOverlay() {
+		shownOverlayCount++;
+		switchViewsWithAnimation(child, progress, animationType);
+	}
+
+	/** Sends onTaskFinished to listener, with result of task */
+	private void NotifyTaskFinished() {
+		hasFinishedTask = false;
+		Mark(Phase.FINISHED);
+		Object result = task.TakeResult();
+		if (getProgressListener() != null)
+			getProgressListener().DeliverResult(child, result);
+	}
+
+	/**
+	 * Timestamps given phase, if metrics are enabled. Task phases are marked
+	 * from background thread, so metrics is read only once
+	 */
+	private void Mark(Phase phase) {
+		ProgressedViewMetrics current = metrics;
+		if (current != null)
+			current.Mark(phase);
+	}
+
+	/**
+	 * Finishes task which has completed in grace period, without ever
+	 * showing progress
+	 */
+	private void SkipOverlay() {
+		isOverlayPending = false;
+		uiHandler.removeCallbacks(showOverlay);
+		skippedOverlayCount++;
+
+		NotifyTaskFinished();
+		if (overlayPool != null)
+			uiHandler.post(releaseProgress);
+	}
+
+	/**
+	 * Completes click with cached result of listener, if there is one, without
+	 * running task or showing progress. If cached result is stale, task runs
+	 * in background to refresh it and its result is delivered once more
+	 * 
+	 * @return True if click has been completed from cache
+	 */
+	private boolean CompleteFromCache() {
+		// A running task can be interrupted only if it is refreshing cache,
+		// since progress isn't showing for it
+		if (speculation != Speculation.NONE || isAnimating
+				|| (isTaskRunning && !isRevalidating)
+				|| getProgressListener() == null)
+			return false;
+
+		String key = getProgressListener().CacheKey(child);
+		ResultCache.Entry<?> cached = key == null ? null : getProgressListener()
+				.Cache().Get(key);
+		if (cached == null)
+			return false;
+
+		cachedCompletionCount++;
+		Mark(Phase.CLICK);
+		Mark(Phase.FINISHED);
+		getProgressListener().DeliverResult(child, cached.getValue());
+		if (cached.isStale() && !isTaskRunning) {
+			isRevalidating = true;
+			StartTask();
+		}
 		return true;
 	}
 
 	/**
-	 * Decides which progressBar should be visible
+	 * Returns true if listener has a cached result for child, without
+	 * counting it as a cache lookup
+	 */
+	private boolean HasCachedResult() {
+		String key = getProgressListener().CacheKey(child);
+		return key != null && getProgressListener().Cache().Peek(key) != null;
+	}
+
+	/**
+	 * Watches touches before child gets them, to inflate progress when user
+	 * touches down first time and to start task speculatively on touch down.
+	 * Child's own OnTouchListener, if app has set one, stays as it is
+	 */
+	@Override
+	public boolean dispatchTouchEvent(MotionEvent event) {
+		if (child != null && child.getVisibility() == View.VISIBLE
+				&& (inflationType == InflationType.ON_TOUCH
+						|| taskStartType == TaskStartType.ON_TOUCH_DOWN))
+			OnChildTouch(event);
+		return super.dispatchTouchEvent(event);
+	}
+
+	/**
+	 * Handles touch on child, coordinates are in this view's space which
+	 * child fills
+	 */
+	private void OnChildTouch(MotionEvent event) {
+		switch (event.getAction()) {
+		case MotionEvent.ACTION_DOWN:
+			if (inflationType == InflationType.ON_TOUCH)
+				InflateProgress();
+			touchDownX = event.getX();
+			touchDownY = event.getY();
+			if (taskStartType == TaskStartType.ON_TOUCH_DOWN && enabled
+					&& !isTaskRunning && !isAnimating
+					&& getProgressListener() != null && !HasCachedResult()) {
+				speculation = Speculation.RUNNING;
+				speculativeTaskCount++;
+				// Task starts before click, don't measure it against last one
+				ProgressedViewMetrics current = metrics;
+				if (current != null)
+					current.Reset();
+				StartTask();
+			}
+			break;
+		case MotionEvent.ACTION_MOVE:
+			if (Math.abs(event.getX() - touchDownX) > touchSlop
+					|| Math.abs(event.getY() - touchDownY) > touchSlop)
+				CancelSpeculation();
+			break;
+		case MotionEvent.ACTION_CANCEL:
+			CancelSpeculation();
+			break;
+		}
+	}
+
+	/**
+	 * Cancels task which is started on touch down, if it is not claimed by
+	 * a click yet. If it is still waiting in executor it never runs,
+	 * otherwise its token gets cancelled and its result is dropped
+	 */
+	private void CancelSpeculation() {
+		if (speculation == Speculation.FINISHED) {
+			speculation = Speculation.NONE;
+			cancelledSpeculationCount++;
+			task.TakeResult();
+		} else if (speculation == Speculation.RUNNING) {
+			speculation = Speculation.NONE;
+			cancelledSpeculationCount++;
+			AbandonTask();
+		}
+	}
+
+	/**
+	 * Lets go of running task, so this view can start another one right
+	 * away. Its token gets cancelled and if it is still queued it never runs,
+	 * unless other views have joined it and wait for its result. Whatever it
+	 * finishes with is dropped
+	 */
+	private void AbandonTask() {
+		Task abandoned = task;
+		abandoned.seek = null;
+		taskCycle++;
+		task = new Task();
+		task.seek = seek;
+		isTaskRunning = false;
+		isRevalidating = false;
+		hasFinishedTask = false;
+
+		if (joinedFlight != null) {
+			// Nothing runs for this view, so only stop waiting. Leave fails
+			// once flight has finished, then its result is on its way to
+			// abandoned task and that drops it, as it isn't current anymore
+			joinedFlight.Leave(abandoned);
+			joinedFlight = null;
+			return;
+		}
+
+		TaskFlight flight = abandoned.flight;
+		if (flight != null && !flight.Abandon())
+			return;
+
+		abandoned.token.Cancel();
+		Executor executor = getTaskExecutor();
+		if (executor instanceof RingExecutor)
+			((RingExecutor) executor).remove(abandoned);
+		else if (executor instanceof ThreadPoolExecutor)
+			((ThreadPoolExecutor) executor).remove(abandoned);
+	}
+
+	/**
+	 * Cancels running task, or the one about to start after progress shows
+	 * up. Its CancellationToken gets cancelled, progress reverses right away
+	 * from where it is, and listener gets onTaskCancelled instead of
+	 * onTaskFinished. It needs to be called on uiThread
 	 * 
-	 * @param parentWidth
-	 *            : width of parent which holds progressBar
-	 * @param parentHeight
-	 *            : height of parent which holds progressBar
+	 * @return True if there was a task to cancel
 	 */
-	private void CalculateProgressSize(int parentWidth, int parentHeight) {
-		ProgressBar pbSmall = (ProgressBar) progress.findViewById(R.id.pbSmall);
-		ProgressBar pb = (ProgressBar) progress.findViewById(R.id.pb);
-		ProgressBar pbBig = (ProgressBar) progress.findViewById(R.id.pbBig);
+	public boolean cancelTask() {
+		return CancelTask(true);
+	}
 
-		if (parentWidth <= LIMIT_FOR_SMALL_PROGRESS
-				|| parentHeight <= LIMIT_FOR_SMALL_PROGRESS)
-			this.pb = pbSmall;
-		else if (parentWidth <= LIMIT_FOR_BIG_PROGRESS
-				|| parentHeight <= LIMIT_FOR_BIG_PROGRESS)
-			this.pb = pb;
-		else
-			this.pb = pbBig;
+	/**
+	 * Cancels task, and reverses progress with animation or turns back to
+	 * child at once
+	 */
+	private boolean CancelTask(boolean shouldAnimate) {
+		boolean isOverlayShowing = isAnimating ? !isReversingAnimation
+				: progress != null && progress.getVisibility() == View.VISIBLE;
+		if (!isTaskRunning && !isOverlayShowing)
+			return false;
+
+		if (isTaskRunning)
+			AbandonTask();
+		speculation = Speculation.NONE;
+		cancelledTaskCount++;
+
+		if (isOverlayPending) {
+			isOverlayPending = false;
+			uiHandler.removeCallbacks(showOverlay);
+			if (overlayPool != null)
+				uiHandler.post(releaseProgress);
+		} else if (isOverlayShowing && shouldAnimate) {
+			isCancelling = true;
+			removeProgress();
+			// Without a reversing animation views are switched at once
+			if (!isAnimating)
+				isCancelling = false;
+		} else if (isOverlayShowing) {
+			SnapToChild();
+		}
 
+		if (getProgressListener() != null)
+			getProgressListener().onTaskCancelled(child);
+		return true;
+	}
+
+	/**
+	 * Stops transition at once and shows child, for when view can't animate
+	 * anymore
+	 */
+	private void SnapToChild() {
+		// End callbacks of stopped transition are ignored from now on
+		isAnimating = false;
+		isReversingAnimation = false;
+		isCancelling = false;
+		hasQueuedClick = false;
+		uiHandler.removeCallbacks(transitionTimeout);
+		if (jankTracker != null)
+			jankTracker.EndTransition();
+		if (tickedTransition != null)
+			ProgressTicker.getInstance().Cancel(tickedTransition);
+
+		StopView(child, View.VISIBLE);
+		StopView(progress, View.GONE);
+		if (overlayPool != null)
+			uiHandler.post(releaseProgress);
+	}
+
+	/** Stops animation of given view and sets its visibility */
+	private void StopView(View view, int visibility) {
+		if (view == null)
+			return;
+
+		view.clearAnimation();
+		if (isPropertyBackend())
+			PropertyAnimationHelper.Stop(view);
+		view.setVisibility(visibility);
+	}
+
+	/**
+	 * Notifies listener as reversing animation ends, unless task has been
+	 * cancelled, which is already notified, or no task has finished, e.g.
+	 * progress is removed before task starts after transition
+	 */
+	private void NotifyReverseEnd() {
+		if (isCancelling)
+			isCancelling = false;
+		else if (hasFinishedTask)
+			NotifyTaskFinished();
+	}
+
+	/** Makes progress cancel task when it is tapped, if it is enabled */
+	private void UpdateOverlayTap() {
+		if (progress == null)
+			return;
+
+		if (isTapToCancel) {
+			progress.setOnClickListener(overlayClickListener);
+		} else {
+			// Pooled progress may still have listener of another view
+			progress.setOnClickListener(null);
+			progress.setClickable(false);
+		}
+	}
+
+	/** Click listener of progress, to cancel task when it is tapped */
+	private OnClickListener overlayClickListener = new OnClickListener() {
+
+		@Override
+		public void onClick(View view) {
+			cancelTask();
+		}
+
+	};
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		// Nobody is going to see result of task, and transitions can't run
+		// without a window
+		CancelTask(false);
+	}
+
+	/**
+	 * Takes over task which is started on touch down, progress shows up for
+	 * it just like it was started by this click
+	 */
+	private void ClaimSpeculation() {
+		boolean hasFinished = speculation == Speculation.FINISHED;
+		speculation = Speculation.NONE;
+		ProgressedViewMetrics current = metrics;
+		if (current != null)
+			current.MarkClaimedClick();
+		cycleTransitionTime = GetTransitionTime();
+
+		if (overlayPool != null && progress == null
+				&& attachState == AttachState.APPLIED)
+			BorrowProgress();
+
+		isOverlayPending = true;
+		if (hasFinished)
+			SkipOverlay();
+		else if (gracePeriod > 0)
+			uiHandler.postDelayed(showOverlay, gracePeriod);
+		else if (progress != null && attachState == AttachState.ATTACHED)
+			showOverlay.run();
+	}
+
+	/** Idle handler to inflate progress whenever uiThread is idle */
+	private IdleHandler lazyIdleHandler = new IdleHandler() {
+
+		@Override
+		public boolean queueIdle() {
+			InflateProgress();
+			return false;
+		}
+
+	};
+
+	/**
+	 * Updates spinner of default progress layout up to progressType
+	 */
+	private void UpdateSpinner() {
+		if (pb == null)
+			this.pb = (ProgressedSpinner) progress.findViewById(R.id.spinner);
+		if (pb == null)
+			return;
+
+		pb.setColor(spinnerColor);
 		if (progressType != ProgressType.JUST_SEEK)
 			this.pb.setVisibility(View.VISIBLE);
+		else
+			this.pb.setVisibility(View.GONE);
 	}
 
 	/** Returns reversing form of given animationType */
@@ -411,37 +1144,19 @@ public class ProgressedView extends RelativeLayout {
 	}
 
 	/**
-	 * Returns interpolation up to given type id
+	 * Returns interpolation up to given type id, built-in ones are sampled
+	 * into a shared lookup table if interpolationResolution is set
 	 */
 	private void GetInterpolation(int type) {
-		switch (type) {
-		case 0:
-			interpolation = new AccelerateInterpolator();
-			break;
-		case 1:
-			interpolation = new DecelerateInterpolator();
-			break;
-		case 2:
-			interpolation = new AccelerateDecelerateInterpolator();
-			break;
-		case 3:
-			interpolation = new AnticipateInterpolator();
-			break;
-		case 4:
-			interpolation = new OvershootInterpolator();
-			break;
-		case 5:
-			interpolation = new AnticipateOvershootInterpolator();
-			break;
-		case 6:
-			interpolation = new CycleInterpolator(1);
-			break;
-		case 7:
-			interpolation = new BounceInterpolator();
-			break;
-		default:
-			interpolation = new LinearInterpolator();
-			break;
+		interpolationType = type;
+		if (type >= 0 && type < INTERPOLATIONS.length) {
+			if (interpolationResolution > 0)
+				interpolation = LookupInterpolator.Get(INTERPOLATIONS[type],
+						interpolationResolution);
+			else
+				interpolation = INTERPOLATIONS[type];
+		} else {
+			interpolation = DEFAULT_INTERPOLATION;
 		}
 	}
 
@@ -453,20 +1168,55 @@ public class ProgressedView extends RelativeLayout {
 	 *            : integer value to set progress
 	 */
 	private void SetProgress(int value) {
-		if (progressLayoutId == DEFAULT_PROGRESS_LAYOUT) {
-			if (seek == null)
-				this.seek = (ProgressedSeek) progress.findViewById(R.id.seek);
-			seek.setProgress(value);
-		}
+		Task current = task;
+		// A replaced task may still be running, its progress is dropped
+		if (current.worker != Thread.currentThread())
+			return;
+
+		TaskFlight flight = current.flight;
+		if (flight != null)
+			flight.Publish(value, 100);
+
+		ProgressedSeek target = current.seek;
+		if (target != null)
+			target.setProgress(value);
+	}
+
+	/**
+	 * Set seekBar's progress as done out of total, if this view currently is
+	 * used with default progress layout
+	 * 
+	 * @param done
+	 *            : Amount of work which is completed
+	 * @param total
+	 *            : Total amount of work
+	 */
+	private void SetProgress(long done, long total) {
+		Task current = task;
+		// A replaced task may still be running, its progress is dropped
+		if (current.worker != Thread.currentThread())
+			return;
+
+		TaskFlight flight = current.flight;
+		if (flight != null)
+			flight.Publish(done, total);
+
+		ProgressedSeek target = current.seek;
+		if (target != null)
+			target.publishProgress(done, total);
 	}
 
 	/**
 	 * Update default progress layout according to progressType
 	 */
 	private void UpdateProgressView() {
-		if (progressLayoutId == DEFAULT_PROGRESS_LAYOUT && progress != null) {
+		if (isProgressFlat()) {
+			UpdateSeekBar();
+		} else if (progressLayoutId == DEFAULT_PROGRESS_LAYOUT
+				&& progress != null) {
 			if (seek == null)
 				this.seek = (ProgressedSeek) progress.findViewById(R.id.seek);
+			task.seek = seek;
 
 			switch (progressType) {
 			case JUST_INDETERMINATE: {
@@ -494,17 +1244,44 @@ public class ProgressedView extends RelativeLayout {
 		}
 	}
 
+	/**
+	 * To update default progress layout's background
+	 */
+	private void UpdateBackground() {
+		if (isProgressFlat())
+			UpdateSeekBar();
+		else if (progressLayoutId == DEFAULT_PROGRESS_LAYOUT && progress != null)
+			progress.setBackgroundColor(backgroundColor);
+	}
+
 	/**
 	 * To update default seekBar's properties
 	 */
 	private void UpdateSeekBar() {
-		if (progressLayoutId == DEFAULT_PROGRESS_LAYOUT && progress != null) {
+		if (isProgressFlat()) {
+			// Flat progress draws everything, so seek is always visible and
+			// it only changes what to draw
+			boolean showSeek = progressType != ProgressType.JUST_INDETERMINATE;
+			this.seek = (ProgressedSeek) progress;
+			task.seek = seek;
+			seek.setJankTracker(jankTracker);
+			seek.setBackgroundColor(showSeek ? seekBackgroundColor
+					: backgroundColor);
+			seek.setProgressColor(seekProgressColor);
+			seek.setTweenDuration(seekTweenDuration);
+			seek.setSeekVisible(showSeek);
+			seek.setSpinnerColor(spinnerColor);
+			seek.setSpinnerVisible(progressType != ProgressType.JUST_SEEK);
+		} else if (progressLayoutId == DEFAULT_PROGRESS_LAYOUT && progress != null) {
 			if (seek == null)
 				this.seek = (ProgressedSeek) progress.findViewById(R.id.seek);
+			task.seek = seek;
 			if (seek != null) {
+				seek.setJankTracker(jankTracker);
 				if (this.progressType != ProgressType.JUST_INDETERMINATE) {
 					seek.setBackgroundColor(seekBackgroundColor);
 					seek.setProgressColor(seekProgressColor);
+					seek.setTweenDuration(seekTweenDuration);
 					seek.setVisibility(View.VISIBLE);
 				} else {
 					seek.setVisibility(View.GONE);
@@ -519,16 +1296,56 @@ public class ProgressedView extends RelativeLayout {
 		@Override
 		public void onClick(View view) {
 			if (enabled) {
+				// Click is timestamped only if it is accepted, ignored ones
+				// would reset phases of a running cycle
+				if (CompleteFromCache())
+					return;
+
 				// If currently there is no task running and no animation
 				// performing, only then view can be clicked!
-				if (!isTaskRunning && !isAnimating) {
-					if (progress != null && hasAttachedSuccessfully) {
-						SetProgress(0);
-						switchViewsWithAnimation(view, progress, animationType);
+				if (speculation == Speculation.RUNNING
+						|| speculation == Speculation.FINISHED) {
+					// Task has already started on touch down
+					ClaimSpeculation();
+				} else if (!isTaskRunning && !isAnimating) {
+					if (overlayPool != null && progress == null
+							&& attachState == AttachState.APPLIED)
+						BorrowProgress();
+
+					if (progress != null
+							&& attachState == AttachState.ATTACHED) {
+						if (seek != null)
+							seek.setProgress(0);
+						Mark(Phase.CLICK);
+						cycleTransitionTime = GetTransitionTime();
+						if (gracePeriod > 0) {
+							// Start task right away, progress shows up only
+							// if task takes longer than grace period
+							isOverlayPending = true;
+							StartTask();
+							uiHandler.postDelayed(showOverlay, gracePeriod);
+						} else {
+							ShowOverlay();
+							if (taskStartType != TaskStartType.AFTER_TRANSITION)
+								StartTask();
+						}
+					} else if (attachState == AttachState.APPLIED
+							|| attachState == AttachState.PENDING) {
+						// Progress is lazily inflated and will be attached
+						// on next preDraw, click will be performed then
+						InflateProgress();
+						if (attachState == AttachState.PENDING)
+							hasPendingClick = true;
+						else if (getProgressListener() != null)
+							getProgressListener().onClick(child);
 					} else {
 						if (getProgressListener() != null)
 							getProgressListener().onClick(child);
 					}
+				} else if (isAnimating && isReversingAnimation) {
+					// Result of previous task is delivered as reverse ends,
+					// so perform this click right after instead of ignoring
+					hasQueuedClick = true;
 				}
 			} else {
 				// ProgressedView is not enabled, so send click action directly
@@ -546,21 +1363,38 @@ public class ProgressedView extends RelativeLayout {
 		@Override
 		public void onAnimationEnd(Animation animation) {
 			if (isAnimating) {
+				uiHandler.removeCallbacks(transitionTimeout);
+				Mark(isReversingAnimation ? Phase.REVERSE_END
+						: Phase.FORWARD_END);
+				if (jankTracker != null)
+					jankTracker.EndTransition();
 				animatingTarget.setVisibility(View.VISIBLE);
 				animatingTarget.clearAnimation();
 
 				animatingSource.setVisibility(View.GONE);
 				animatingSource.clearAnimation();
 
+				// Property animations really move source, so put it back
+				// for the next time it shows up
+				if (isPropertyBackend())
+					PropertyAnimationHelper.Reset(animatingSource);
+
 				if (isReversingAnimation) {
-					if (getProgressListener() != null)
-						getProgressListener().onTaskFinished(child);
+					NotifyReverseEnd();
 					isReversingAnimation = false;
-				} else {
-					new Task().execute();
+
+					// Animation ends during draw, so give progress back to
+					// pool afterwards
+					if (overlayPool != null)
+						uiHandler.post(releaseProgress);
+				} else if (!isTaskRunning) {
+					// Task may have started already in grace period
+					StartTask();
 				}
 
 				isAnimating = false;
+				if (hasQueuedClick)
+					uiHandler.post(performQueuedClick);
 			}
 		}
 
@@ -594,9 +1428,6 @@ public class ProgressedView extends RelativeLayout {
 		this.animatingSource = source;
 		this.animatingTarget = target;
 
-		int width = getMeasuredWidth();
-		int height = getMeasuredHeight();
-
 		if (anim != null) {
 
 			animatingTarget.setVisibility(View.VISIBLE);
@@ -604,93 +1435,18 @@ public class ProgressedView extends RelativeLayout {
 
 			if (shouldBringTargetFront)
 				bringChildToFront(animatingTarget);
+			this.animatingType = anim;
 
-			switch (anim) {
-			case SWIPE_LEFT_TO_RIGHT: {
-				if (shouldSourceRemainSteady)
-					StartSteadyAnimation(source);
-				else
-					AnimationHelper.StartTranslation(source, AnimDirection.X,
-							0, width, animationTime, interpolation,
-							progressedAnimListener);
-				AnimationHelper.StartTranslation(target, AnimDirection.X,
-						-width, 0, animationTime, interpolation,
-						progressedAnimListener);
-				break;
-			}
-			case SWIPE_RIGHT_TO_LEFT: {
-				if (shouldSourceRemainSteady)
-					StartSteadyAnimation(source);
-				else
-					AnimationHelper.StartTranslation(source, AnimDirection.X,
-							0, -width, animationTime, interpolation,
-							progressedAnimListener);
-				AnimationHelper.StartTranslation(target, AnimDirection.X,
-						width, 0, animationTime, interpolation,
-						progressedAnimListener);
-				break;
-			}
-			case SWIPE_BOTTOM_TO_TOP: {
-				if (shouldSourceRemainSteady)
-					StartSteadyAnimation(source);
-				else
-					AnimationHelper.StartTranslation(source, AnimDirection.Y,
-							0, -height, animationTime, interpolation,
-							progressedAnimListener);
-				AnimationHelper.StartTranslation(target, AnimDirection.Y,
-						height, 0, animationTime, interpolation,
-						progressedAnimListener);
-				break;
-			}
-			case SWIPE_TOP_TO_BOTTOM: {
-				if (shouldSourceRemainSteady)
-					StartSteadyAnimation(source);
-				else
-					AnimationHelper.StartTranslation(source, AnimDirection.Y,
-							0, height, animationTime, interpolation,
-							progressedAnimListener);
-				AnimationHelper.StartTranslation(target, AnimDirection.Y,
-						-height, 0, animationTime, interpolation,
-						progressedAnimListener);
-				break;
-			}
-			case SCALE_IN: {
-				if (shouldSourceRemainSteady)
-					StartSteadyAnimation(source);
-				else
-					AnimationHelper.StartTogether(source, AnimationHelper
-							.Scale(1, 0.5f, animationTime, interpolation,
-									progressedAnimListener), AnimationHelper
-							.Alpha(1.0f, 0, animationTime));
-				AnimationHelper.StartTogether(target, AnimationHelper.Scale(
-						1.5f, 1, animationTime, interpolation), AnimationHelper
-						.Alpha(0, 1.0f, animationTime));
-				break;
-			}
-			case SCALE_OUT: {
-				if (shouldSourceRemainSteady)
-					StartSteadyAnimation(source);
-				else
-					AnimationHelper.StartTogether(source, AnimationHelper
-							.Scale(1, 1.5f, animationTime, interpolation,
-									progressedAnimListener), AnimationHelper
-							.Alpha(1.0f, 0, animationTime));
-				AnimationHelper.StartTogether(target, AnimationHelper.Scale(
-						0.5f, 1, animationTime, interpolation), AnimationHelper
-						.Alpha(0, 1.0f, animationTime));
-				break;
-			}
-			case ALPHA: {
-				if (shouldSourceRemainSteady)
-					StartSteadyAnimation(source);
-				else
-					AnimationHelper.StartAlpha(source, 1.0f, 0, animationTime,
-							interpolation, progressedAnimListener);
-				AnimationHelper.StartAlpha(target, 0, 1.0f, animationTime,
-						interpolation);
-				break;
-			}
-			}
+			// Animations are built once and restarted on next clicks, unless
+			// size of this view changes
+			ResolveTransitionSpecs();
+			AnimationSpec[] specs = transitionSpecs[anim.ordinal()];
+			int width = getMeasuredWidth();
+			int height = getMeasuredHeight();
+
+			AnimationSpec sourceSpec = shouldSourceRemainSteady ? steadySpec
+					: specs[0];
+			StartTransition(sourceSpec, specs[1], width, height, true);
 
 		} else {
 			// If there is no animation willing, then just switch views
@@ -700,47 +1456,399 @@ public class ProgressedView extends RelativeLayout {
 	}
 
 	/**
-	 * Animation to make given view remain steady
+	 * Starts given specs on animatingSource and animatingTarget with current
+	 * animationBackend
 	 * 
-	 * @param view
-	 *            : view to apply steadyAnimation
+	 * @param isCached
+	 *            : False for specs which are built only once, so they don't
+	 *            fill animationCache up
+	 */
+	private void StartTransition(AnimationSpec sourceSpec,
+			AnimationSpec targetSpec, int width, int height, boolean isCached) {
+		this.animatingSourceSpec = sourceSpec;
+		this.animatingTargetSpec = targetSpec;
+		this.transitionStartTime = AnimationUtils.currentAnimationTimeMillis();
+		Mark(isReversingAnimation ? Phase.REVERSE_START : Phase.FORWARD_START);
+		if (jankTracker != null)
+			jankTracker.BeginTransition(GetJankKey());
+
+		if (isTickerBackend()) {
+			if (tickedTransition == null)
+				tickedTransition = new TickedTransition(progressedAnimListener);
+			tickedTransition.Set(animatingSource, sourceSpec, animatingTarget,
+					targetSpec, width, height);
+			if (isCached)
+				ProgressTicker.getInstance().StartStaggered(tickedTransition);
+			else
+				ProgressTicker.getInstance().Start(tickedTransition);
+		} else if (isPropertyBackend()) {
+			if (sourceLayerListener == null) {
+				sourceLayerListener = new LayerListener();
+				targetLayerListener = new LayerListener();
+			}
+			PropertyAnimationHelper.Start(animatingSource, sourceSpec, width,
+					height, sourceLayerListener, progressedAnimListener);
+			PropertyAnimationHelper.Start(animatingTarget, targetSpec, width,
+					height, targetLayerListener, progressedAnimListener);
+		} else if (isCached) {
+			AnimationHelper.Restart(animatingSource,
+					animationCache.Get(sourceSpec, width, height));
+			AnimationHelper.Restart(animatingTarget,
+					animationCache.Get(targetSpec, width, height));
+		} else {
+			AnimationHelper.Restart(animatingSource, AnimationHelper.Build(
+					sourceSpec, width, height, progressedAnimListener));
+			AnimationHelper.Restart(animatingTarget, AnimationHelper.Build(
+					targetSpec, width, height, progressedAnimListener));
+		}
+
+		// Transition starts on a later frame, don't let another click start
+		// it again meanwhile. If it never starts, it is ended after a while
+		isAnimating = true;
+		uiHandler.removeCallbacks(transitionTimeout);
+		uiHandler.postDelayed(transitionTimeout, Math.max(
+				sourceSpec.getDuration(), targetSpec.getDuration())
+				+ TRANSITION_END_TIMEOUT);
+	}
+
+	/**
+	 * Runnable to end transition whose end callback hasn't come in time, so
+	 * view doesn't keep ignoring clicks for a transition which never runs
+	 */
+	private final Runnable transitionTimeout = new Runnable() {
+
+		@Override
+		public void run() {
+			if (!isAnimating)
+				return;
+
+			if (tickedTransition != null)
+				ProgressTicker.getInstance().Cancel(tickedTransition);
+			if (isPropertyBackend()) {
+				PropertyAnimationHelper.Stop(animatingSource);
+				PropertyAnimationHelper.Stop(animatingTarget);
+			}
+			// Callback of cancelled animation may have ended it already
+			progressedAnimListener.onAnimationEnd(null);
+		}
+
+	};
+
+	/**
+	 * Returns key to aggregate frame times of current transition for, e.g.
+	 * "SCALE_IN/BounceInterpolator front"
+	 */
+	private String GetJankKey() {
+		Interpolator source = interpolation;
+		if (source instanceof LookupInterpolator)
+			source = ((LookupInterpolator) source).getSource();
+		String key = animatingType.name() + "/"
+				+ (source == null ? "none" : source.getClass().getSimpleName());
+		return shouldBringTargetFront ? key + " front" : key;
+	}
+
+	/**
+	 * Turns running transition back from its current frame, so it takes only
+	 * as long as it has already run instead of waiting for its end and then
+	 * running a full animation the other way
+	 */
+	private void RewindTransition() {
+		int duration = animatingSourceSpec.getDuration();
+		int elapsed;
+		if (isTickerBackend())
+			elapsed = tickedTransition.getElapsed();
+		else
+			elapsed = (int) (AnimationUtils.currentAnimationTimeMillis()
+					- transitionStartTime);
+		elapsed = Math.max(0, Math.min(duration, elapsed));
+		float fraction = duration > 0 ? (float) elapsed / duration : 1;
+
+		AnimationSpec rewoundSource = animatingSourceSpec.RewindAt(fraction,
+				elapsed);
+		AnimationSpec rewoundTarget = animatingTargetSpec.RewindAt(fraction,
+				elapsed);
+
+		// Clear animations of both views while their end callbacks are
+		// ignored, so none of animations keeps running on its view
+		isAnimating = false;
+		animatingSource.clearAnimation();
+		animatingTarget.clearAnimation();
+
+		// View which was visible before is the target now
+		View previousSource = animatingSource;
+		this.animatingSource = animatingTarget;
+		this.animatingTarget = previousSource;
+		isReversingAnimation = !isReversingAnimation;
+
+		StartTransition(rewoundTarget, rewoundSource, getMeasuredWidth(),
+				getMeasuredHeight(), false);
+	}
+
+	/**
+	 * Returns true if transitions change views' real properties, either with
+	 * property animations or by ticker
+	 */
+	private boolean isPropertyBackend() {
+		return animationBackend != AnimationBackend.VIEW
+				&& PropertyAnimationHelper.isSupported();
+	}
+
+	/** Returns true if transitions are advanced by shared ProgressTicker */
+	private boolean isTickerBackend() {
+		return animationBackend == AnimationBackend.TICKER
+				&& PropertyAnimationHelper.isSupported();
+	}
+
+	/**
+	 * Resolves transition table with transition time of current click and
+	 * interpolation, only if any of them has changed since last time
+	 */
+	private void ResolveTransitionSpecs() {
+		int duration = cycleTransitionTime >= 0 ? cycleTransitionTime
+				: GetTransitionTime();
+		if (transitionSpecs != null && specDuration == duration
+				&& specInterpolation == interpolation)
+			return;
+
+		transitionSpecs = new AnimationSpec[TRANSITIONS.length][];
+		for (int i = 0; i < TRANSITIONS.length; i++) {
+			transitionSpecs[i] = new AnimationSpec[] {
+					TRANSITIONS[i][0].Resolve(duration, interpolation),
+					TRANSITIONS[i][1].Resolve(duration, interpolation) };
+		}
+		steadySpec = STEADY.Resolve(duration, interpolation);
+		specDuration = duration;
+		specInterpolation = interpolation;
+
+		// Animations of previous specs won't be asked anymore
+		animationCache.Clear();
+	}
+
+	/**
+	 * Returns duration of next transition. In adaptive mode it is half of
+	 * listener's average task duration, so fast tasks don't wait for long
+	 * animations, between minAnimationTime and animationTime. Otherwise it
+	 * is animationTime itself
+	 */
+	private int GetTransitionTime() {
+		if (!isAdaptiveAnimation || getProgressListener() == null)
+			return animationTime;
+
+		TaskLatencyStats stats = TaskLatencyStats.For(getProgressListener());
+		if (stats.getSampleCount() == 0)
+			return animationTime;
+
+		long adaptive = stats.getAverage() / 2;
+		adaptive -= adaptive % ADAPTIVE_DURATION_STEP;
+		return (int) Math.min(animationTime,
+				Math.max(minAnimationTime, adaptive));
+	}
+
+	/**
+	 * Runs background task on taskExecutor, or on shared default executor if
+	 * there is no custom one given
+	 */
+	private void StartTask() {
+		isTaskRunning = true;
+		String key = getProgressListener() == null ? null
+				: getProgressListener().getTaskKey(child);
+		if (key != null) {
+			task.joinTime = SystemClock.uptimeMillis();
+			TaskFlight flight = TaskFlight.Join(key, this, task);
+			if (flight.getOwner() != this) {
+				task.cycle = ++taskCycle;
+				JoinFlight(flight);
+				return;
+			}
+			// This view's task is already running for it
+			if (task.flight == flight)
+				return;
+			task.flight = flight;
+		}
+
+		task.cycle = ++taskCycle;
+		task.cacheKey = getProgressListener() == null ? null
+				: getProgressListener().CacheKey(child);
+		task.token.Reset();
+		getTaskExecutor().execute(task);
+	}
+
+	/**
+	 * Waits for task of another view with same key instead of running it
+	 * again, its progress is shown on this view's seek as well
 	 */
-	private void StartSteadyAnimation(View view) {
-		AnimationHelper.StartAlpha(view, 1.0f, 1.0f, animationTime,
-				interpolation, progressedAnimListener);
+	private void JoinFlight(TaskFlight flight) {
+		joinedFlight = flight;
+		joinedTaskCount++;
+		Mark(Phase.TASK_START);
+
+		// Task may have progressed already, don't let seek start from zero
+		float lastFraction = flight.getLastFraction();
+		if (lastFraction > 0)
+			task.OnSharedProgress(
+					(long) (lastFraction * SHARED_PROGRESS_SCALE),
+					SHARED_PROGRESS_SCALE);
 	}
 
 	/**
 	 * 
-	 * AsyncTask to do stuff on background and then remove progress on given
-	 * child
+	 * Runnable to do stuff on background and then remove progress on given
+	 * child over uiThread
 	 * 
 	 * @author Yahya BAYRAMOGLU
 	 * 
 	 */
-	private class Task extends AsyncTask<Void, Void, Void> {
+	private class Task implements Runnable, TaskFlight.Follower {
+
+		private volatile long duration;
+		/** Key to cache result by, it is set on uiThread before execution */
+		private String cacheKey;
+		/** Flight which other views can join, while this task is running */
+		private TaskFlight flight;
+		/** Time task has joined another view's flight at */
+		private long joinTime;
+		/** Token of task, it is cancelled only once and then task is replaced */
+		private final CancellationToken token = new CancellationToken();
+		/**
+		 * Seek to publish progress on, it is resolved on uiThread once
+		 * progress is attached and cleared when progress is released, so
+		 * worker threads never look up views
+		 */
+		private volatile ProgressedSeek seek;
+		/** Thread running this task, progress from any other is dropped */
+		private volatile Thread worker;
+		/**
+		 * Result of last task, it is written before onFinished is posted and
+		 * read after it runs on uiThread, so posting orders them
+		 */
+		private Object result;
+		/**
+		 * True if last run has done background task itself, rather than
+		 * loading a stored result or receiving one from a flight. Only such
+		 * runs tell how long task takes. It is ordered just like result
+		 */
+		private boolean hasRun;
+		/** Cycle this task has started in, it is set on uiThread */
+		private int cycle;
+
+		/** Returns result of last task and drops reference to it */
+		Object TakeResult() {
+			Object taken = result;
+			result = null;
+			return taken;
+		}
 
+		/**
+		 * Shows progress of a flight this task has joined, unless task has
+		 * been abandoned since. It is called from thread of flight's task
+		 */
 		@Override
-		protected void onPreExecute() {
-			super.onPreExecute();
-			isTaskRunning = true;
+		public void OnSharedProgress(long done, long total) {
+			ProgressedSeek target = seek;
+			if (Task.this == task && target != null)
+				target.publishProgress(done, total);
 		}
 
+		/**
+		 * Finishes with result of a flight this task has joined, just like
+		 * this task has run. It is called from thread of flight's task, and
+		 * if task has been abandoned since, onFinished drops result
+		 */
 		@Override
-		protected Void doInBackground(Void... arg0) {
-
-			if (getProgressListener() != null)
-				getProgressListener().doBackgroundTask(child);
+		public void OnSharedTaskFinished(Object sharedResult) {
+			result = sharedResult;
+			hasRun = false;
+			duration = SystemClock.uptimeMillis() - joinTime;
+			MarkIfCurrent(Phase.TASK_END);
+			uiHandler.post(onFinished);
+		}
 
-			return null;
+		/**
+		 * Timestamps phase of this task, unless it has been abandoned or a
+		 * newer run has started since, so it doesn't stamp a cycle which
+		 * isn't its own
+		 */
+		private void MarkIfCurrent(Phase phase) {
+			if (Task.this == task && cycle == taskCycle)
+				Mark(phase);
 		}
 
-		@Override
-		protected void onPostExecute(Void result) {
-			super.onPostExecute(result);
+		private final Runnable onFinished = new Runnable() {
 
-			isTaskRunning = false;
-			removeProgress();
+			@Override
+			public void run() {
+				// Task has been cancelled and replaced, nobody waits for it
+				if (Task.this != task) {
+					TakeResult();
+					return;
+				}
+
+				isTaskRunning = false;
+				flight = null;
+				joinedFlight = null;
+				if (hasRun && getProgressListener() != null)
+					TaskLatencyStats.For(getProgressListener()).Record(
+							duration);
+
+				// Cached result has already been shown for this click, so
+				// only hand fresh one over. A failed refresh has nothing new
+				// to show, so cached one stays
+				if (isRevalidating) {
+					isRevalidating = false;
+					Object refreshed = TakeResult();
+					if (refreshed != null && getProgressListener() != null)
+						getProgressListener().DeliverResult(child, refreshed);
+					return;
+				}
+
+				// Task started on touch down waits for click
+				if (speculation == Speculation.RUNNING) {
+					speculation = Speculation.FINISHED;
+					return;
+				}
+
+				hasFinishedTask = true;
+				if (isOverlayPending)
+					SkipOverlay();
+				else
+					removeProgress();
+			}
+
+		};
+
+		@Override
+		public void run() {
+			long start = SystemClock.uptimeMillis();
+			worker = Thread.currentThread();
+			hasRun = false;
+			MarkIfCurrent(Phase.TASK_START);
+			ProgressedViewListener listener = getProgressListener();
+			try {
+				if (listener != null) {
+					// Click has only looked into memory, disk is read here
+					result = cacheKey == null ? null : listener
+							.LoadResult(cacheKey);
+					if (result == null) {
+						hasRun = true;
+						result = listener.RunBackgroundTask(child, token);
+						if (cacheKey != null && !token.isCancelled())
+							listener.StoreResult(cacheKey, result);
+					}
+				}
+			} catch (CancellationException e) {
+				// Task has stopped as its token asked, nobody waits for it
+				if (!token.isCancelled())
+					throw e;
+			} finally {
+				worker = null;
+				duration = SystemClock.uptimeMillis() - start;
+				// Cancelled run has nothing to do with the cycle
+				if (!token.isCancelled())
+					MarkIfCurrent(Phase.TASK_END);
+				if (flight != null)
+					flight.Finish(result);
+				uiHandler.post(onFinished);
+			}
 		}
 
 	}
@@ -755,6 +1863,81 @@ public class ProgressedView extends RelativeLayout {
 
 	public void setProgressListener(ProgressedViewListener progressListener) {
 		this.progressListener = progressListener;
+		if (metrics != null)
+			metrics.setListenerKey(progressListener == null ? null
+					: progressListener.getClass().getName());
+	}
+
+	/** Returns frame tracker of this view, or null if it is disabled */
+	public FrameJankTracker getJankTracker() {
+		return jankTracker;
+	}
+
+	/**
+	 * Set true to time every frame while a transition or a seek update is
+	 * active. Frame times are aggregated per animation type and
+	 * interpolation, they can be reached by FrameJankTracker.getAllStats
+	 */
+	public void setJankCaptureEnabled(boolean isEnabled) {
+		if (!isEnabled) {
+			// Running transition would otherwise stay active for good
+			if (jankTracker != null)
+				jankTracker.EndTransition();
+			jankTracker = null;
+		} else if (jankTracker == null)
+			jankTracker = new FrameJankTracker(getContext());
+
+		if (seek != null)
+			seek.setJankTracker(jankTracker);
+	}
+
+	/** Returns phase metrics of this view, or null if they are disabled */
+	public ProgressedViewMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Set true to timestamp every phase from click to onTaskFinished and
+	 * aggregate them, for this view and its listener's class
+	 */
+	public void setMetricsEnabled(boolean isEnabled) {
+		if (!isEnabled) {
+			metrics = null;
+		} else if (metrics == null) {
+			metrics = new ProgressedViewMetrics();
+			setProgressListener(progressListener);
+		}
+	}
+
+	public Executor getTaskExecutor() {
+		if (taskExecutor == null)
+			return TaskExecutor.getDefault();
+		return taskExecutor;
+	}
+
+	/**
+	 * Set executor to run background task on, null means to use shared
+	 * default executor
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	public AnimationCache getAnimationCache() {
+		return animationCache;
+	}
+
+	public ProgressOverlayPool getOverlayPool() {
+		return overlayPool;
+	}
+
+	/**
+	 * Set pool to borrow progress from when task starts, and give it back
+	 * when reversing animation ends. It needs to be set before child is
+	 * applied
+	 */
+	public void setOverlayPool(ProgressOverlayPool overlayPool) {
+		this.overlayPool = overlayPool;
 	}
 
 	public View getChild() {
@@ -770,7 +1953,17 @@ public class ProgressedView extends RelativeLayout {
 	}
 
 	public boolean hasAttachedSuccessfully() {
-		return hasAttachedSuccessfully;
+		return attachState == AttachState.ATTACHED;
+	}
+
+	/** Returns how many times progress layout has been inflated */
+	public int getProgressInflationCount() {
+		return progressInflationCount;
+	}
+
+	/** Returns how many times onPreDrawListener has been registered */
+	public int getPreDrawListenerCount() {
+		return preDrawListenerCount;
 	}
 
 	public boolean isReversingAnimation() {
@@ -789,6 +1982,37 @@ public class ProgressedView extends RelativeLayout {
 		this.animationTime = animationTime;
 	}
 
+	public boolean isAdaptiveAnimation() {
+		return isAdaptiveAnimation;
+	}
+
+	/**
+	 * Set true to scale transitions to listener's past task durations, they
+	 * take between minAnimationTime and animationTime then. Learned durations
+	 * can be reached by getTaskLatencyStats
+	 */
+	public void setAdaptiveAnimation(boolean isAdaptiveAnimation) {
+		this.isAdaptiveAnimation = isAdaptiveAnimation;
+	}
+
+	public int getMinAnimationTime() {
+		return minAnimationTime;
+	}
+
+	public void setMinAnimationTime(int minAnimationTime) {
+		this.minAnimationTime = Math.max(0, minAnimationTime);
+	}
+
+	/**
+	 * Returns learned task durations of current listener, or null if there
+	 * is no listener
+	 */
+	public TaskLatencyStats getTaskLatencyStats() {
+		if (getProgressListener() == null)
+			return null;
+		return TaskLatencyStats.For(getProgressListener());
+	}
+
 	public AnimationType getAnimationType() {
 		return animationType;
 	}
@@ -804,12 +2028,32 @@ public class ProgressedView extends RelativeLayout {
 
 	public void setInterpolation(Interpolator interpolation) {
 		this.interpolation = interpolation;
+		this.interpolationType = CUSTOM_INTERPOLATION;
 	}
 
 	public void setInterpolation(int interpolationReference) {
 		GetInterpolation(interpolationReference);
 	}
 
+	public Interpolator getInterpolation() {
+		return interpolation;
+	}
+
+	public int getInterpolationResolution() {
+		return interpolationResolution;
+	}
+
+	/**
+	 * Set number of samples to keep for built-in interpolations, they are
+	 * linearly interpolated in between. 0 means to use framework
+	 * interpolators directly. Custom interpolators are never sampled
+	 */
+	public void setInterpolationResolution(int interpolationResolution) {
+		this.interpolationResolution = Math.max(0, interpolationResolution);
+		if (interpolationType != CUSTOM_INTERPOLATION)
+			GetInterpolation(interpolationType);
+	}
+
 	public void setRemainSteady(boolean shouldSourceRemainSteady) {
 		this.shouldSourceRemainSteady = shouldSourceRemainSteady;
 	}
@@ -835,8 +2079,7 @@ public class ProgressedView extends RelativeLayout {
 	public void setBackgroundColor(int backgroundColor) {
 		this.backgroundColor = backgroundColor;
 
-		if (progressLayoutId == DEFAULT_PROGRESS_LAYOUT && progress != null)
-			progress.setBackgroundColor(backgroundColor);
+		UpdateBackground();
 	}
 
 	public void setSeekBackgroundColor(int seekBackgroundColor) {
@@ -849,6 +2092,149 @@ public class ProgressedView extends RelativeLayout {
 		UpdateSeekBar();
 	}
 
+	/**
+	 * Set time constant in milliseconds for default seekBar to move smoothly
+	 * between sparse progress updates, 0 disables it
+	 */
+	public void setSeekTweenDuration(int seekTweenDuration) {
+		this.seekTweenDuration = seekTweenDuration;
+		UpdateSeekBar();
+	}
+
+	public int getGracePeriod() {
+		return gracePeriod;
+	}
+
+	/**
+	 * Set time in milliseconds to wait before showing progress. Task starts
+	 * right away on click, and if it finishes within this time progress
+	 * doesn't show up at all. 0 shows progress immediately
+	 */
+	public void setGracePeriod(int gracePeriod) {
+		this.gracePeriod = Math.max(0, gracePeriod);
+	}
+
+	/** Returns how many times progress has shown up for a task */
+	public int getShownOverlayCount() {
+		return shownOverlayCount;
+	}
+
+	/**
+	 * Returns how many tasks have finished in grace period without showing
+	 * progress
+	 */
+	public int getSkippedOverlayCount() {
+		return skippedOverlayCount;
+	}
+
+	/**
+	 * Returns how many clicks have completed from listener's result cache
+	 * without running task
+	 */
+	public int getCachedCompletionCount() {
+		return cachedCompletionCount;
+	}
+
+	/** Returns how many tasks have been cancelled before finishing */
+	public int getCancelledTaskCount() {
+		return cancelledTaskCount;
+	}
+
+	public boolean isTapToCancel() {
+		return isTapToCancel;
+	}
+
+	/**
+	 * Set true to cancel task when user taps progress. Task gets cancelled
+	 * through its CancellationToken and progress reverses right away
+	 */
+	public void setTapToCancel(boolean isTapToCancel) {
+		this.isTapToCancel = isTapToCancel;
+		UpdateOverlayTap();
+	}
+
+	/**
+	 * Returns how many tasks have joined a running task of another view with
+	 * same key, instead of running again
+	 */
+	public int getJoinedTaskCount() {
+		return joinedTaskCount;
+	}
+
+	/**
+	 * Returns true if task is running in background to refresh a stale
+	 * cached result, without showing progress
+	 */
+	public boolean isRevalidating() {
+		return isRevalidating;
+	}
+
+	public TaskStartType getTaskStartType() {
+		return taskStartType;
+	}
+
+	/**
+	 * Set when background task should start, it needs to be set before child
+	 * is applied
+	 */
+	public void setTaskStartType(TaskStartType taskStartType) {
+		this.taskStartType = taskStartType;
+	}
+
+	/** Returns how many tasks have started on touch down */
+	public int getSpeculativeTaskCount() {
+		return speculativeTaskCount;
+	}
+
+	/**
+	 * Returns how many tasks started on touch down have been cancelled by a
+	 * scroll or a cancelled touch
+	 */
+	public int getCancelledSpeculationCount() {
+		return cancelledSpeculationCount;
+	}
+
+	public AnimationBackend getAnimationBackend() {
+		return animationBackend;
+	}
+
+	/**
+	 * Set how transitions should animate, it shouldn't be changed while
+	 * animating
+	 */
+	public void setAnimationBackend(AnimationBackend animationBackend) {
+		this.animationBackend = animationBackend;
+	}
+
+	public InflationType getInflationType() {
+		return inflationType;
+	}
+
+	/**
+	 * Set when progress layout should get inflated, it needs to be set before
+	 * child is applied
+	 */
+	public void setInflationType(InflationType inflationType) {
+		this.inflationType = inflationType;
+	}
+
+	public void setSpinnerColor(int spinnerColor) {
+		this.spinnerColor = spinnerColor;
+
+		if (pb != null)
+			pb.setColor(spinnerColor);
+		UpdateSeekBar();
+	}
+
+	/**
+	 * Set true to draw default progress as a single view, which paints its
+	 * background, seek and spinner by itself and every pixel only once. It
+	 * needs to be set before progress gets created
+	 */
+	public void setFlattenProgress(boolean shouldFlattenProgress) {
+		this.shouldFlattenProgress = shouldFlattenProgress;
+	}
+
 	public boolean isEnabled() {
 		return enabled;
 	}
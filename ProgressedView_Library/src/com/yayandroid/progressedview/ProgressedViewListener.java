@@ -21,10 +21,84 @@ public abstract class ProgressedViewListener {
 	 */
 	public abstract void doBackgroundTask(View view);
 
+	/**
+	 * Same as doBackgroundTask, with a token which gets cancelled when user
+	 * taps progress, view gets detached or cancelTask is called. Override
+	 * this one instead to stop early, then doBackgroundTask(View) can be left
+	 * empty. Whatever is done after cancellation is dropped
+	 */
+	public void doBackgroundTask(View view, CancellationToken token) {
+		doBackgroundTask(view);
+	}
+
 	/**
 	 * This method is just to notify user when everything has completed. It is
 	 * called just onAnimationEnd not to interrupt animating. And it runs on uiThread.
 	 */
 	public abstract void onTaskFinished(View view);
 
+	/**
+	 * This method is to notify user when task has been cancelled, instead of
+	 * onTaskFinished. It runs on uiThread, right away while progress is
+	 * reversing, and task may still be returning in background.
+	 */
+	public void onTaskCancelled(View view) {
+
+	}
+
+	/**
+	 * Returns key of task on given view, null by default. While a task is
+	 * running, views whose listeners return same key don't run it again,
+	 * they wait for the running one and share its seek progress and result,
+	 * so their listeners should have same type of results. It is called on
+	 * uiThread
+	 */
+	public String getTaskKey(View view) {
+		return null;
+	}
+
+	/**
+	 * Runs background task, and returns its result to hand over to
+	 * DeliverResult on uiThread
+	 */
+	Object RunBackgroundTask(View view, CancellationToken token) {
+		doBackgroundTask(view, token);
+		return null;
+	}
+
+	/**
+	 * Notifies task has finished with result returned by RunBackgroundTask
+	 */
+	void DeliverResult(View view, Object result) {
+		onTaskFinished(view);
+	}
+
+	/**
+	 * Returns key to cache result of task on given view by, or null if it
+	 * shouldn't be cached
+	 */
+	String CacheKey(View view) {
+		return null;
+	}
+
+	/** Returns cache which results of this listener are kept in, if any */
+	ResultCache<?> Cache() {
+		return null;
+	}
+
+	/**
+	 * Returns fresh result of given key from cache, reading it from disk if
+	 * needed, or null to run task. It is called from background thread
+	 */
+	Object LoadResult(String key) {
+		return null;
+	}
+
+	/**
+	 * Keeps result returned by RunBackgroundTask in cache with given key
+	 */
+	void StoreResult(String key, Object result) {
+
+	}
+
 }
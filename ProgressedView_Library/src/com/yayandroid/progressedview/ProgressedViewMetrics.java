@@ -0,0 +1,337 @@
+package com.yayandroid.progressedview;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 
+ * Timestamps every phase of a ProgressedView, from click to onTaskFinished,
+ * with a monotonic clock and aggregates time between them into histograms.
+ * Each view has its own histograms, and they are aggregated per listener
+ * class as well. Recording doesn't lock or allocate, so it can stay enabled
+ * in production and be exported by snapshots.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class ProgressedViewMetrics {
+
+	/**
+	 * Enumeration of phases which get timestamped
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public enum Phase {
+		CLICK, FORWARD_START, FORWARD_END, TASK_START, TASK_END, REVERSE_START, REVERSE_END, FINISHED
+	}
+
+	/**
+	 * Enumeration of time spans between phases which get aggregated
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public enum Span {
+		CLICK_TO_FORWARD, FORWARD, CLICK_TO_TASK, TASK, REVERSE, CLICK_TO_FINISH
+	}
+
+	/**
+	 * Listener to get every phase as it happens, e.g. to send them to a
+	 * telemetry. Task phases are sent from background thread
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public interface PhaseListener {
+		void onPhase(ProgressedViewMetrics metrics, Phase phase, long timeNanos);
+	}
+
+	/** Bucket i counts spans between 2^(i-1) and 2^i milliseconds */
+	public static final int BUCKET_COUNT = 20;
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	private static final HashMap<String, Histogram[]> listenerHistograms =
+			new HashMap<String, Histogram[]>();
+	private static volatile PhaseListener phaseListener;
+
+	/** Phases are marked from uiThread and from task's thread */
+	private final AtomicLongArray phaseTimes = new AtomicLongArray(
+			Phase.values().length);
+	/**
+	 * Click to task span is recorded once per click, by click or by task
+	 * start, whichever sees the other
+	 */
+	private final AtomicBoolean hasClickToTask = new AtomicBoolean();
+	private final Histogram[] histograms = CreateHistograms();
+	private volatile Histogram[] sharedHistograms;
+	private volatile String listenerKey;
+
+	/**
+	 * 
+	 * Lock free histogram of a span
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	private static class Histogram {
+
+		final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+		final AtomicLong count = new AtomicLong();
+		final AtomicLong totalNanos = new AtomicLong();
+		final AtomicLong maxNanos = new AtomicLong();
+
+		void Record(long nanos) {
+			long millis = nanos / NANOS_PER_MILLI;
+			int bucket = Math.min(BUCKET_COUNT - 1,
+					64 - Long.numberOfLeadingZeros(millis));
+			buckets.incrementAndGet(bucket);
+			count.incrementAndGet();
+			totalNanos.addAndGet(nanos);
+
+			long max;
+			do {
+				max = maxNanos.get();
+			} while (nanos > max && !maxNanos.compareAndSet(max, nanos));
+		}
+
+	}
+
+	/**
+	 * 
+	 * Copy of histograms at a moment, to read or export
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public static class Snapshot {
+
+		private final long[] counts = new long[Span.values().length];
+		private final long[] totalNanos = new long[Span.values().length];
+		private final long[] maxNanos = new long[Span.values().length];
+		private final long[][] buckets = new long[Span.values().length][BUCKET_COUNT];
+
+		private Snapshot(Histogram[] histograms) {
+			for (int i = 0; i < histograms.length; i++) {
+				counts[i] = histograms[i].count.get();
+				totalNanos[i] = histograms[i].totalNanos.get();
+				maxNanos[i] = histograms[i].maxNanos.get();
+				for (int j = 0; j < BUCKET_COUNT; j++)
+					buckets[i][j] = histograms[i].buckets.get(j);
+			}
+		}
+
+		public long getCount(Span span) {
+			return counts[span.ordinal()];
+		}
+
+		public long getAverageNanos(Span span) {
+			long count = counts[span.ordinal()];
+			return count == 0 ? 0 : totalNanos[span.ordinal()] / count;
+		}
+
+		public long getMaxNanos(Span span) {
+			return maxNanos[span.ordinal()];
+		}
+
+		/**
+		 * Returns count of spans in given bucket, bucket i counts spans
+		 * between 2^(i-1) and 2^i milliseconds and bucket 0 is below 1 ms
+		 */
+		public long getBucket(Span span, int bucket) {
+			return buckets[span.ordinal()][bucket];
+		}
+
+		/**
+		 * Returns upper bound in milliseconds of bucket which given
+		 * percentile falls in
+		 */
+		public long getPercentileMillis(Span span, int percentile) {
+			long count = counts[span.ordinal()];
+			if (count == 0)
+				return 0;
+
+			long rank = (long) Math.ceil(count * percentile / 100d);
+			long seen = 0;
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				seen += buckets[span.ordinal()][i];
+				if (seen >= rank)
+					return 1L << i;
+			}
+			return 1L << (BUCKET_COUNT - 1);
+		}
+
+	}
+
+	/**
+	 * Timestamps given phase, and records span which it ends if its start
+	 * has been timestamped since last click
+	 */
+	public void Mark(Phase phase) {
+		long now = System.nanoTime();
+		switch (phase) {
+		case CLICK:
+			Reset();
+			break;
+		case FORWARD_START:
+			RecordSpan(Span.CLICK_TO_FORWARD, Phase.CLICK, now);
+			break;
+		case FORWARD_END:
+			RecordSpan(Span.FORWARD, Phase.FORWARD_START, now);
+			break;
+		case TASK_START:
+			phaseTimes.set(Phase.TASK_START.ordinal(), now);
+			RecordClickToTask();
+			break;
+		case TASK_END:
+			RecordSpan(Span.TASK, Phase.TASK_START, now);
+			break;
+		case REVERSE_END:
+			RecordSpan(Span.REVERSE, Phase.REVERSE_START, now);
+			break;
+		case FINISHED:
+			RecordSpan(Span.CLICK_TO_FINISH, Phase.CLICK, now);
+			break;
+		default:
+			break;
+		}
+		phaseTimes.set(phase.ordinal(), now);
+		Notify(phase, now);
+	}
+
+	/**
+	 * Timestamps click which claims a task started on touch down. Phases of
+	 * that task are kept, and if it has already started, its click to task
+	 * span is 0
+	 */
+	public void MarkClaimedClick() {
+		long now = System.nanoTime();
+		for (int i = 0; i < phaseTimes.length(); i++) {
+			if (i != Phase.TASK_START.ordinal()
+					&& i != Phase.TASK_END.ordinal())
+				phaseTimes.set(i, 0);
+		}
+		phaseTimes.set(Phase.CLICK.ordinal(), now);
+		RecordClickToTask();
+		Notify(Phase.CLICK, now);
+	}
+
+	/**
+	 * Clears every phase, so a task started on touch down isn't measured
+	 * against previous click
+	 */
+	public void Reset() {
+		for (int i = 0; i < phaseTimes.length(); i++)
+			phaseTimes.set(i, 0);
+		hasClickToTask.set(false);
+	}
+
+	private void Notify(Phase phase, long now) {
+		PhaseListener listener = phaseListener;
+		if (listener != null)
+			listener.onPhase(this, phase, now);
+	}
+
+	/**
+	 * Records click to task span once both of them are timestamped. Each
+	 * side timestamps itself before reading the other, so at least one of
+	 * them sees both and only first one records
+	 */
+	private void RecordClickToTask() {
+		long click = phaseTimes.get(Phase.CLICK.ordinal());
+		long taskStart = phaseTimes.get(Phase.TASK_START.ordinal());
+		if (click == 0 || taskStart == 0
+				|| !hasClickToTask.compareAndSet(false, true))
+			return;
+
+		// Task started on touch down has waited none after click
+		Record(Span.CLICK_TO_TASK, Math.max(0, taskStart - click));
+	}
+
+	private void RecordSpan(Span span, Phase start, long now) {
+		long startTime = phaseTimes.get(start.ordinal());
+		if (startTime == 0)
+			return;
+
+		Record(span, now - startTime);
+	}
+
+	private void Record(Span span, long nanos) {
+		histograms[span.ordinal()].Record(nanos);
+		Histogram[] shared = sharedHistograms;
+		if (shared != null)
+			shared[span.ordinal()].Record(nanos);
+	}
+
+	private static Histogram[] CreateHistograms() {
+		Histogram[] histograms = new Histogram[Span.values().length];
+		for (int i = 0; i < histograms.length; i++)
+			histograms[i] = new Histogram();
+		return histograms;
+	}
+
+	/**
+	 * Set key of listener class to aggregate spans for, null to aggregate
+	 * only for this view
+	 */
+	public void setListenerKey(String listenerKey) {
+		this.listenerKey = listenerKey;
+		if (listenerKey == null) {
+			sharedHistograms = null;
+			return;
+		}
+
+		synchronized (listenerHistograms) {
+			Histogram[] shared = listenerHistograms.get(listenerKey);
+			if (shared == null) {
+				shared = CreateHistograms();
+				listenerHistograms.put(listenerKey, shared);
+			}
+			sharedHistograms = shared;
+		}
+	}
+
+	public String getListenerKey() {
+		return listenerKey;
+	}
+
+	/** Returns last timestamp of given phase in nanoseconds, 0 if none */
+	public long getPhaseTime(Phase phase) {
+		return phaseTimes.get(phase.ordinal());
+	}
+
+	/** Returns snapshot of this view's histograms */
+	public Snapshot getSnapshot() {
+		return new Snapshot(histograms);
+	}
+
+	/**
+	 * Returns snapshot of all views' histograms with given listener class,
+	 * or null if there is none
+	 */
+	public static Snapshot getListenerSnapshot(String listenerKey) {
+		synchronized (listenerHistograms) {
+			Histogram[] shared = listenerHistograms.get(listenerKey);
+			return shared == null ? null : new Snapshot(shared);
+		}
+	}
+
+	/** Returns keys of all listener classes which have histograms */
+	public static List<String> getListenerKeys() {
+		synchronized (listenerHistograms) {
+			return new ArrayList<String>(listenerHistograms.keySet());
+		}
+	}
+
+	/**
+	 * Set listener to get every phase of every view, null to remove it
+	 */
+	public static void setPhaseListener(PhaseListener listener) {
+		phaseListener = listener;
+	}
+
+}
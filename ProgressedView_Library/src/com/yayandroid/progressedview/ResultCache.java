@@ -0,0 +1,408 @@
+package com.yayandroid.progressedview;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * 
+ * Keeps results of background tasks by a key, so a click whose result is
+ * already known completes instantly without running its task or showing
+ * progress. It keeps at most maxEntries results and evicts least recently
+ * used one when it is full. A result is fresh for timeToLive milliseconds,
+ * after that it can still be served for staleTime milliseconds while task
+ * runs again in background to refresh it, and then it expires.
+ * 
+ * A cache is thread safe, so it can be shared between listeners and views
+ * which have results of same type. A ResultDiskStore can be put under it, so
+ * results survive process restarts. Lookups on uiThread only look into
+ * memory, results on disk are read back by Load on task's thread.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ * @param <T>
+ *            Type of task result
+ */
+public class ResultCache<T> {
+
+	public static final int DEFAULT_MAX_ENTRIES = 32;
+	/** Time to live of results which never get old */
+	public static final long FOREVER = Long.MAX_VALUE;
+	private static final long NANOS_PER_MILLI = 1000000L;
+	/** Monotonic times are counted from here, so they start from zero */
+	private static final long CLOCK_ORIGIN = System.nanoTime();
+
+	// Entries are moved to the end when used, so first one is always the
+	// least recently used one
+	private final LinkedHashMap<String, Entry<T>> entries =
+			new LinkedHashMap<String, Entry<T>>();
+	private ResultDiskStore<T> diskStore;
+	private int maxEntries;
+	private long timeToLive;
+	private long staleTime;
+	private int hitCount = 0;
+	private int staleHitCount = 0;
+	private int missCount = 0;
+	private int diskHitCount = 0;
+	private int evictionCount = 0;
+	private int expirationCount = 0;
+
+	/**
+	 * 
+	 * A cached result with times it gets stale and expires at. Those are on
+	 * monotonic clock, so changing device time doesn't make results fresh
+	 * or old, only stored time is on wall clock to keep it on disk
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public static class Entry<T> {
+
+		private final String key;
+		private final T value;
+		private final long storedTime;
+		private final long staleAt;
+		private final long expiresAt;
+
+		Entry(String key, T value, long storedTime, long timeToLive,
+				long staleTime) {
+			this.key = key;
+			this.value = value;
+			this.storedTime = storedTime;
+			// Result read from disk is as old as wall clock says, a clock
+			// set back doesn't make it younger than new
+			long age = Math.max(0, System.currentTimeMillis() - storedTime);
+			this.staleAt = Add(Now() - age, timeToLive);
+			this.expiresAt = Add(staleAt, staleTime);
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public T getValue() {
+			return value;
+		}
+
+		/** Returns wall clock time in milliseconds result is stored at */
+		public long getStoredTime() {
+			return storedTime;
+		}
+
+		/** Returns true if result has outlived its time to live */
+		public boolean isStale() {
+			return Now() >= staleAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+
+	}
+
+	public ResultCache() {
+		this(DEFAULT_MAX_ENTRIES, FOREVER, 0);
+	}
+
+	/**
+	 * @param maxEntries
+	 *            : Maximum number of results to keep
+	 * @param timeToLive
+	 *            : Time in milliseconds a result stays fresh
+	 */
+	public ResultCache(int maxEntries, long timeToLive) {
+		this(maxEntries, timeToLive, 0);
+	}
+
+	/**
+	 * @param maxEntries
+	 *            : Maximum number of results to keep
+	 * @param timeToLive
+	 *            : Time in milliseconds a result stays fresh
+	 * @param staleTime
+	 *            : Time in milliseconds a result can still be served after
+	 *            it gets stale, while it is being refreshed
+	 */
+	public ResultCache(int maxEntries, long timeToLive, long staleTime) {
+		setMaxEntries(maxEntries);
+		setTimeToLive(timeToLive);
+		setStaleTime(staleTime);
+	}
+
+	/**
+	 * Returns result of given key, or null if there is none or it has
+	 * expired. Returned entry can be stale, which should be checked by
+	 * isStale
+	 */
+	public synchronized Entry<T> Get(String key) {
+		Entry<T> entry = Find(key);
+		if (entry == null) {
+			missCount++;
+			return null;
+		}
+
+		if (entry.isStale())
+			staleHitCount++;
+		else
+			hitCount++;
+		entries.remove(key);
+		entries.put(key, entry);
+		return entry;
+	}
+
+	/**
+	 * Returns result of given key like Get, but without counting it as a hit
+	 * or a miss and without changing its recency
+	 */
+	public synchronized Entry<T> Peek(String key) {
+		Entry<T> entry = entries.get(key);
+		if (entry == null || entry.isExpired(Now()))
+			return null;
+		return entry;
+	}
+
+	/**
+	 * Returns result of given key like Get, reading it from disk store if it
+	 * is not in memory, and keeps it in memory afterwards. It doesn't count
+	 * as a hit or a miss, only as a disk hit. It can wait for disk, so it
+	 * should be called from a background thread
+	 */
+	public Entry<T> Load(String key) {
+		ResultDiskStore<T> store;
+		long timeToLive, staleTime;
+		synchronized (this) {
+			Entry<T> entry = entries.get(key);
+			if (entry != null && !entry.isExpired(Now()))
+				return entry;
+
+			store = diskStore;
+			timeToLive = this.timeToLive;
+			staleTime = this.staleTime;
+		}
+		if (store == null)
+			return null;
+
+		// Store has its own lock, and disk is never read under this one
+		Entry<T> entry = store.Read(key, timeToLive, staleTime);
+		if (entry == null)
+			return null;
+		if (entry.isExpired(Now())) {
+			store.Remove(key);
+			return null;
+		}
+
+		synchronized (this) {
+			// A newer result may have been put meanwhile
+			Entry<T> current = entries.get(key);
+			if (current != null
+					&& current.getStoredTime() >= entry.getStoredTime())
+				return current;
+
+			diskHitCount++;
+			entries.remove(key);
+			entries.put(key, entry);
+			TrimToSize(maxEntries);
+			return entry;
+		}
+	}
+
+	/**
+	 * Keeps result of given key, replacing previous one if any. Null results
+	 * are not kept, so a failed task doesn't hide the next attempt
+	 */
+	public void Put(String key, T value) {
+		if (key == null || value == null)
+			return;
+
+		Entry<T> entry = new Entry<T>(key, value, System.currentTimeMillis(),
+				timeToLive, staleTime);
+		ResultDiskStore<T> store;
+		synchronized (this) {
+			entries.remove(key);
+			entries.put(key, entry);
+			TrimToSize(maxEntries);
+			store = diskStore;
+		}
+
+		// Store has its own lock, so lookups don't wait for disk writes
+		if (store != null)
+			store.Write(key, value, entry.getStoredTime());
+	}
+
+	/**
+	 * Removes result of given key, so next click runs its task. It waits for
+	 * disk store if there is one
+	 */
+	public void Remove(String key) {
+		ResultDiskStore<T> store;
+		synchronized (this) {
+			entries.remove(key);
+			store = diskStore;
+		}
+		if (store != null)
+			store.Remove(key);
+	}
+
+	/**
+	 * Removes all results, from disk store as well. It waits for disk store
+	 * if there is one
+	 */
+	public void Clear() {
+		ResultDiskStore<T> store;
+		synchronized (this) {
+			entries.clear();
+			store = diskStore;
+		}
+		if (store != null)
+			store.Clear();
+	}
+
+	/** Sets all counters back to zero */
+	public synchronized void ResetCounters() {
+		hitCount = 0;
+		staleHitCount = 0;
+		missCount = 0;
+		diskHitCount = 0;
+		evictionCount = 0;
+		expirationCount = 0;
+	}
+
+	/**
+	 * Returns entry of given key in memory if it hasn't expired, expired one
+	 * is removed from memory. Its copy on disk is removed by next Load, so
+	 * disk isn't touched here
+	 */
+	private Entry<T> Find(String key) {
+		Entry<T> entry = entries.get(key);
+		if (entry != null && entry.isExpired(Now())) {
+			entries.remove(key);
+			expirationCount++;
+			return null;
+		}
+		return entry;
+	}
+
+	private void TrimToSize(int size) {
+		Iterator<Entry<T>> iterator = entries.values().iterator();
+		while (entries.size() > size && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	/**
+	 * Adds given times without overflowing past FOREVER, time can be
+	 * negative for results older than this process
+	 */
+	private static long Add(long time, long duration) {
+		return duration == FOREVER || (time > 0 && duration >= FOREVER - time)
+				? FOREVER : time + duration;
+	}
+
+	/** Returns monotonic time in milliseconds, for freshness of results */
+	private static long Now() {
+		return (System.nanoTime() - CLOCK_ORIGIN) / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @category Getter And Setter
+	 */
+
+	public synchronized ResultDiskStore<T> getDiskStore() {
+		return diskStore;
+	}
+
+	/**
+	 * Set store to keep results on disk as well, null to keep them only in
+	 * memory. Results on disk are read back only by Load, and they keep the
+	 * time they were first stored at, so they get stale and expire by the
+	 * time to live of this cache
+	 */
+	public synchronized void setDiskStore(ResultDiskStore<T> diskStore) {
+		this.diskStore = diskStore;
+	}
+
+	public synchronized int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Set maximum number of results to keep, least recently used ones are
+	 * evicted if there are more
+	 */
+	public synchronized void setMaxEntries(int maxEntries) {
+		if (maxEntries < 0)
+			throw new IllegalArgumentException("Max entries can not be negative");
+
+		this.maxEntries = maxEntries;
+		TrimToSize(maxEntries);
+	}
+
+	public synchronized long getTimeToLive() {
+		return timeToLive;
+	}
+
+	/**
+	 * Set time in milliseconds a result stays fresh, FOREVER keeps results
+	 * until they are evicted. It applies to results stored afterwards
+	 */
+	public synchronized void setTimeToLive(long timeToLive) {
+		if (timeToLive < 0)
+			throw new IllegalArgumentException(
+					"Time to live can not be negative");
+
+		this.timeToLive = timeToLive;
+	}
+
+	public synchronized long getStaleTime() {
+		return staleTime;
+	}
+
+	/**
+	 * Set time in milliseconds a stale result can still be served while it
+	 * is being refreshed, 0 means stale results expire right away. It
+	 * applies to results stored afterwards
+	 */
+	public synchronized void setStaleTime(long staleTime) {
+		if (staleTime < 0)
+			throw new IllegalArgumentException("Stale time can not be negative");
+
+		this.staleTime = staleTime;
+	}
+
+	/** Returns number of results in cache, including expired ones */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/** Returns number of lookups which found a fresh result */
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+	/** Returns number of lookups which found a stale result */
+	public synchronized int getStaleHitCount() {
+		return staleHitCount;
+	}
+
+	/** Returns number of loads which found result on disk store */
+	public synchronized int getDiskHitCount() {
+		return diskHitCount;
+	}
+
+	/** Returns number of lookups which found no result */
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+	/** Returns number of results evicted because cache was full */
+	public synchronized int getEvictionCount() {
+		return evictionCount;
+	}
+
+	/** Returns number of results removed because they have expired */
+	public synchronized int getExpirationCount() {
+		return expirationCount;
+	}
+
+}
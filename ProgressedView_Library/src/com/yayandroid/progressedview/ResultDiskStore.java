@@ -0,0 +1,857 @@
+package com.yayandroid.progressedview;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+
+/**
+ * 
+ * Persistent tier of a ResultCache, so results survive process restarts.
+ * Results are appended to a data file and never rewritten in place, and a
+ * memory-mapped hash index points each key to its latest record, so a lookup
+ * costs an index probe and a single read. Removing a result appends a
+ * tombstone, so it stays removed when index is rebuilt from data. Every
+ * record has a checksum, and a
+ * record which is torn by a crash or corrupted on disk is dropped instead of
+ * being returned. When files grow over maxBytes, or replaced records take
+ * more space than live ones, live records are compacted into a new data file
+ * newest first, and oldest ones are evicted if they still don't fit.
+ * 
+ * It doesn't depend on Android, so it can be used on any JVM. Files are not
+ * synced on every write, so a crash can lose last results but it never brings
+ * back a broken one. A store owns its directory, and only one store should
+ * be open on a directory at a time.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ * @param <T>
+ *            Type of task result
+ */
+public class ResultDiskStore<T> {
+
+	/**
+	 * Converts results to bytes to be written to disk and back
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public interface Serializer<T> {
+		byte[] Write(T value) throws IOException;
+
+		T Read(byte[] data) throws IOException;
+	}
+
+	public static final long DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+	/** Store never gets smaller than this, so index always fits in it */
+	public static final long MIN_MAX_BYTES = 64 * 1024;
+
+	private static final String DATA_FILE = "results.dat";
+	private static final String INDEX_FILE = "results.idx";
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final String CHARSET = "UTF-8";
+
+	private static final int DATA_MAGIC = 0x50564454;
+	private static final int INDEX_MAGIC = 0x50564958;
+	private static final int RECORD_MAGIC = 0x50565243;
+	/** Magic of a record which removes its key, it has no value */
+	private static final int TOMBSTONE_MAGIC = 0x50565453;
+	private static final int VERSION = 1;
+	/** Data header: magic, version, generation */
+	private static final int DATA_HEADER_SIZE = 16;
+	/** Record header: magic, key length, value length, checksum, time */
+	private static final int RECORD_HEADER_SIZE = 24;
+	/** Index header: magic, version, capacity, unused, generation, length */
+	private static final int INDEX_HEADER_SIZE = 32;
+	/** Index slot: key hash, offset, length, state, time */
+	private static final int SLOT_SIZE = 32;
+	private static final int MIN_CAPACITY = 64;
+	private static final int SLOT_EMPTY = 0;
+	private static final int SLOT_LIVE = 1;
+	private static final int SLOT_REMOVED = 2;
+	/** Compaction brings data down to this share of its budget */
+	private static final float COMPACT_TARGET = 0.75f;
+	/** Replaced records don't trigger compaction below this data size */
+	private static final long MIN_GARBAGE_BYTES = 64 * 1024;
+
+	private final File directory;
+	private final Serializer<T> serializer;
+	private long maxBytes;
+	private RandomAccessFile dataFile;
+	private FileChannel data;
+	private RandomAccessFile indexFile;
+	private MappedByteBuffer index;
+	private int capacity;
+	private int liveCount = 0;
+	private int usedSlotCount = 0;
+	private long liveBytes = 0;
+	private long generation;
+	private long dataLength;
+	private int hitCount = 0;
+	private int missCount = 0;
+	private int writeCount = 0;
+	private int evictionCount = 0;
+	private int corruptionCount = 0;
+	private int compactionCount = 0;
+	private int errorCount = 0;
+
+	/**
+	 * 
+	 * Serializer for strings, in UTF-8
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public static class StringSerializer implements Serializer<String> {
+
+		@Override
+		public byte[] Write(String value) throws IOException {
+			return value.getBytes(CHARSET);
+		}
+
+		@Override
+		public String Read(byte[] data) throws IOException {
+			return new String(data, CHARSET);
+		}
+
+	}
+
+	/**
+	 * 
+	 * Serializer for any Serializable result, with java serialization. It is
+	 * simple but slow and large, a dedicated serializer should be preferred
+	 * for big results
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public static class ObjectSerializer<T extends Serializable> implements
+			Serializer<T> {
+
+		@Override
+		public byte[] Write(T value) throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream out = new ObjectOutputStream(bytes);
+			out.writeObject(value);
+			out.close();
+			return bytes.toByteArray();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T Read(byte[] data) throws IOException {
+			ObjectInputStream in = new ObjectInputStream(
+					new ByteArrayInputStream(data));
+			try {
+				return (T) in.readObject();
+			} catch (ClassNotFoundException e) {
+				throw new IOException("Unknown result class: " + e.getMessage());
+			} finally {
+				in.close();
+			}
+		}
+
+	}
+
+	/**
+	 * Opens store in given directory, results which are written by a
+	 * previous process are read back
+	 * 
+	 * @param directory
+	 *            : Directory to keep files in, it is created if it doesn't
+	 *            exist
+	 * @param serializer
+	 *            : Serializer to convert results with
+	 * @param maxBytes
+	 *            : Maximum number of bytes data and index files can take
+	 *            together
+	 */
+	public ResultDiskStore(File directory, Serializer<T> serializer,
+			long maxBytes) throws IOException {
+		if (serializer == null)
+			throw new IllegalArgumentException("Serializer can not be null");
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Couldn't create directory " + directory);
+
+		this.directory = directory;
+		this.serializer = serializer;
+		this.maxBytes = Math.max(MIN_MAX_BYTES, maxBytes);
+		Open();
+	}
+
+	/**
+	 * Opens data and index files. Index is rebuilt from data if it doesn't
+	 * belong to it, and records appended after index was last updated are
+	 * indexed again
+	 */
+	private void Open() throws IOException {
+		dataFile = new RandomAccessFile(new File(directory, DATA_FILE), "rw");
+		data = dataFile.getChannel();
+		if (!ReadDataHeader()) {
+			generation = System.currentTimeMillis();
+			data.truncate(0);
+			WriteDataHeader(data, generation);
+		}
+
+		indexFile = new RandomAccessFile(new File(directory, INDEX_FILE), "rw");
+		if (LoadIndex()) {
+			Scan(dataLength);
+			DropDanglingSlots();
+		} else {
+			dataLength = DATA_HEADER_SIZE;
+			MapIndex(MIN_CAPACITY);
+			Scan(DATA_HEADER_SIZE);
+		}
+	}
+
+	/**
+	 * Returns result of given key as a cache entry, or null if there is none
+	 */
+	synchronized ResultCache.Entry<T> Read(String key, long timeToLive,
+			long staleTime) {
+		if (index == null)
+			return null;
+
+		try {
+			byte[] keyBytes = key.getBytes(CHARSET);
+			int slot = FindSlot(Hash(keyBytes));
+			if (slot < 0) {
+				missCount++;
+				return null;
+			}
+
+			int position = SlotPosition(slot);
+			int length = index.getInt(position + 16);
+			ByteBuffer record = length < RECORD_HEADER_SIZE ? null
+					: ByteBuffer.allocate(length);
+			if (record == null || !ReadFully(record, index.getLong(position + 8))
+					|| !isValid(record)) {
+				corruptionCount++;
+				RemoveSlot(slot);
+				return null;
+			}
+
+			// Different keys can have same hash, which is very unlikely
+			byte[] recordKey = new byte[record.getInt(4)];
+			record.position(RECORD_HEADER_SIZE);
+			record.get(recordKey);
+			if (!Arrays.equals(keyBytes, recordKey)) {
+				missCount++;
+				return null;
+			}
+
+			byte[] value = new byte[record.getInt(8)];
+			record.get(value);
+			T result = serializer.Read(value);
+			hitCount++;
+			return new ResultCache.Entry<T>(key, result, record.getLong(16),
+					timeToLive, staleTime);
+		} catch (IOException e) {
+			errorCount++;
+			return null;
+		}
+	}
+
+	/**
+	 * Appends result of given key, it replaces previous one unless that is
+	 * newer. Results which wouldn't fit even alone are not written
+	 */
+	synchronized void Write(String key, T value, long storedTime) {
+		if (index == null)
+			return;
+
+		try {
+			byte[] keyBytes = key.getBytes(CHARSET);
+			long hash = Hash(keyBytes);
+			int existing = FindSlot(hash);
+			if (existing >= 0
+					&& index.getLong(SlotPosition(existing) + 24) > storedTime)
+				return;
+
+			byte[] valueBytes = serializer.Write(value);
+			int length = RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length;
+			if (length > getDataBudget() * COMPACT_TARGET)
+				return;
+
+			long offset = Append(RECORD_MAGIC, keyBytes, valueBytes, storedTime);
+			Insert(hash, offset, length, storedTime);
+			writeCount++;
+			CompactIfNeeded();
+		} catch (IOException e) {
+			errorCount++;
+		}
+	}
+
+	/**
+	 * Removes result of given key. A tombstone is appended for it, so it
+	 * isn't brought back when index is rebuilt from data
+	 */
+	public synchronized void Remove(String key) {
+		if (index == null)
+			return;
+
+		try {
+			byte[] keyBytes = key.getBytes(CHARSET);
+			int slot = FindSlot(Hash(keyBytes));
+			if (slot < 0)
+				return;
+
+			Append(TOMBSTONE_MAGIC, keyBytes, new byte[0],
+					System.currentTimeMillis());
+			RemoveSlot(slot);
+			CompactIfNeeded();
+		} catch (IOException e) {
+			errorCount++;
+		}
+	}
+
+	/** Removes all results and shrinks files back to empty */
+	public synchronized void Clear() {
+		if (index == null)
+			return;
+
+		try {
+			generation++;
+			data.truncate(DATA_HEADER_SIZE);
+			WriteDataHeader(data, generation);
+			dataLength = DATA_HEADER_SIZE;
+			MapIndex(capacity);
+		} catch (IOException e) {
+			errorCount++;
+		}
+	}
+
+	/**
+	 * Rewrites live records into a new data file, newest first, and evicts
+	 * oldest ones which don't fit into its budget. It runs by itself when
+	 * needed, and it can be called to shrink files right away
+	 */
+	public synchronized void Compact() {
+		if (index == null)
+			return;
+
+		int count = 0;
+		Integer[] order = new Integer[liveCount];
+		for (int i = 0; i < capacity; i++)
+			if (SlotState(i) == SLOT_LIVE)
+				order[count++] = i;
+
+		// Newest first, so oldest ones are left out if they don't fit
+		Arrays.sort(order, 0, count, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer lhs, Integer rhs) {
+				long lhsTime = index.getLong(SlotPosition(lhs.intValue()) + 24);
+				long rhsTime = index.getLong(SlotPosition(rhs.intValue()) + 24);
+				return lhsTime > rhsTime ? -1 : (lhsTime == rhsTime ? 0 : 1);
+			}
+
+		});
+
+		File target = new File(directory, DATA_FILE);
+		File temp = new File(directory, DATA_FILE + TEMP_SUFFIX);
+		long limit = DATA_HEADER_SIZE + (long) (getDataBudget() * COMPACT_TARGET);
+		long[] kept = new long[count * 4];
+		int keptCount = 0;
+		long length = DATA_HEADER_SIZE;
+		try {
+			RandomAccessFile out = new RandomAccessFile(temp, "rw");
+			try {
+				FileChannel outChannel = out.getChannel();
+				outChannel.truncate(0);
+				WriteDataHeader(outChannel, generation + 1);
+				for (int i = 0; i < count; i++) {
+					int position = SlotPosition(order[i].intValue());
+					int recordLength = index.getInt(position + 16);
+					if (length + recordLength > limit) {
+						evictionCount++;
+						continue;
+					}
+
+					Transfer(index.getLong(position + 8), recordLength,
+							outChannel, length);
+					kept[keptCount++] = index.getLong(position);
+					kept[keptCount++] = length;
+					kept[keptCount++] = recordLength;
+					kept[keptCount++] = index.getLong(position + 24);
+					length += recordLength;
+				}
+				// New file has to be complete on disk before it replaces old
+				// one, otherwise a crash could leave neither of them
+				outChannel.force(false);
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			temp.delete();
+			errorCount++;
+			return;
+		}
+
+		try {
+			dataFile.close();
+			if (!temp.renameTo(target)
+					&& (!target.delete() || !temp.renameTo(target)))
+				throw new IOException("Couldn't replace " + target);
+
+			dataFile = new RandomAccessFile(target, "rw");
+			data = dataFile.getChannel();
+			generation++;
+			dataLength = length;
+			MapIndex(capacity);
+			for (int i = 0; i < keptCount; i += 4)
+				Insert(kept[i], kept[i + 1], (int) kept[i + 2], kept[i + 3]);
+			compactionCount++;
+		} catch (IOException e) {
+			// Files may not match each other anymore, they are checked again
+			// on next open
+			errorCount++;
+			Close();
+		}
+	}
+
+	/**
+	 * Closes files, store does nothing afterwards. Data written so far is
+	 * read back by next store opened on same directory
+	 */
+	public synchronized void Close() {
+		index = null;
+		try {
+			dataFile.close();
+		} catch (IOException e) {
+			errorCount++;
+		}
+		try {
+			indexFile.close();
+		} catch (IOException e) {
+			errorCount++;
+		}
+	}
+
+	/**
+	 * Reads generation from data header, returns false if file is not a
+	 * data file of this version
+	 */
+	private boolean ReadDataHeader() throws IOException {
+		if (data.size() < DATA_HEADER_SIZE)
+			return false;
+
+		ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_SIZE);
+		if (!ReadFully(header, 0) || header.getInt(0) != DATA_MAGIC
+				|| header.getInt(4) != VERSION)
+			return false;
+
+		generation = header.getLong(8);
+		return true;
+	}
+
+	private static void WriteDataHeader(FileChannel channel, long generation)
+			throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_SIZE);
+		header.putInt(DATA_MAGIC).putInt(VERSION).putLong(generation);
+		header.flip();
+		WriteFully(channel, header, 0);
+	}
+
+	/**
+	 * Maps existing index, returns false if it is missing, broken or belongs
+	 * to another generation of data
+	 */
+	private boolean LoadIndex() throws IOException {
+		long size = indexFile.length();
+		if (size < INDEX_HEADER_SIZE)
+			return false;
+
+		MappedByteBuffer map = indexFile.getChannel().map(
+				FileChannel.MapMode.READ_WRITE, 0, size);
+		int mappedCapacity = map.getInt(8);
+		long mappedLength = map.getLong(24);
+		if (map.getInt(0) != INDEX_MAGIC || map.getInt(4) != VERSION
+				|| mappedCapacity < MIN_CAPACITY
+				|| Integer.bitCount(mappedCapacity) != 1
+				|| size < INDEX_HEADER_SIZE + (long) mappedCapacity * SLOT_SIZE
+				|| map.getLong(16) != generation
+				|| mappedLength < DATA_HEADER_SIZE
+				|| mappedLength > data.size())
+			return false;
+
+		index = map;
+		capacity = mappedCapacity;
+		dataLength = mappedLength;
+		for (int i = 0; i < capacity; i++) {
+			int state = SlotState(i);
+			if (state != SLOT_EMPTY)
+				usedSlotCount++;
+			if (state == SLOT_LIVE) {
+				liveCount++;
+				liveBytes += index.getInt(SlotPosition(i) + 16);
+			}
+		}
+		return true;
+	}
+
+	/** Maps an empty index with given capacity */
+	private void MapIndex(int newCapacity) throws IOException {
+		long size = INDEX_HEADER_SIZE + (long) newCapacity * SLOT_SIZE;
+		// File only grows, since a mapped file can't be shrunk everywhere.
+		// Bytes after capacity are left unused
+		if (indexFile.length() < size)
+			indexFile.setLength(size);
+
+		index = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+				size);
+		byte[] zeros = new byte[SLOT_SIZE * MIN_CAPACITY];
+		index.position(0);
+		while (index.remaining() > 0)
+			index.put(zeros, 0, Math.min(zeros.length, index.remaining()));
+
+		index.putInt(0, INDEX_MAGIC);
+		index.putInt(4, VERSION);
+		index.putInt(8, newCapacity);
+		index.putLong(16, generation);
+		index.putLong(24, dataLength);
+		capacity = newCapacity;
+		liveCount = 0;
+		usedSlotCount = 0;
+		liveBytes = 0;
+	}
+
+	/**
+	 * Indexes valid records from given offset to end of data, and cuts data
+	 * at first record which is torn or broken
+	 */
+	private void Scan(long from) throws IOException {
+		long offset = from;
+		long size = data.size();
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+		while (offset + RECORD_HEADER_SIZE <= size) {
+			header.clear();
+			if (!ReadFully(header, offset))
+				break;
+			int magic = header.getInt(0);
+			if (magic != RECORD_MAGIC && magic != TOMBSTONE_MAGIC)
+				break;
+
+			int keyLength = header.getInt(4);
+			int valueLength = header.getInt(8);
+			long length = (long) RECORD_HEADER_SIZE + keyLength + valueLength;
+			if (keyLength < 0 || valueLength < 0 || length > Integer.MAX_VALUE
+					|| offset + length > size)
+				break;
+
+			ByteBuffer record = ByteBuffer.allocate((int) length);
+			if (!ReadFully(record, offset) || !isValid(record))
+				break;
+
+			byte[] key = new byte[keyLength];
+			record.position(RECORD_HEADER_SIZE);
+			record.get(key);
+			if (magic == TOMBSTONE_MAGIC) {
+				int slot = FindSlot(Hash(key));
+				if (slot >= 0)
+					RemoveSlot(slot);
+			} else {
+				Insert(Hash(key), offset, (int) length, record.getLong(16));
+			}
+			offset += length;
+		}
+
+		if (offset < size) {
+			corruptionCount++;
+			data.truncate(offset);
+		}
+		dataLength = offset;
+		index.putLong(24, dataLength);
+	}
+
+	/**
+	 * Removes slots pointing past end of data, which can be left by a crash
+	 * between updating index and data
+	 */
+	private void DropDanglingSlots() {
+		for (int i = 0; i < capacity; i++) {
+			int position = SlotPosition(i);
+			if (SlotState(i) == SLOT_LIVE
+					&& index.getLong(position + 8)
+							+ index.getInt(position + 16) > dataLength)
+				RemoveSlot(i);
+		}
+	}
+
+	/** Returns slot of given hash, or -1 if it isn't indexed */
+	private int FindSlot(long hash) {
+		int mask = capacity - 1;
+		int slot = Mix(hash) & mask;
+		for (int probe = 0; probe < capacity; probe++) {
+			int state = SlotState(slot);
+			if (state == SLOT_EMPTY)
+				return -1;
+			if (state == SLOT_LIVE && index.getLong(SlotPosition(slot)) == hash)
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/** Points given hash to a record, replacing previous one if any */
+	private void Insert(long hash, long offset, int length, long storedTime)
+			throws IOException {
+		int existing = FindSlot(hash);
+		if (existing >= 0) {
+			liveBytes -= index.getInt(SlotPosition(existing) + 16);
+			SetSlot(existing, hash, offset, length, storedTime);
+			liveBytes += length;
+			return;
+		}
+
+		if ((usedSlotCount + 1) * 4 > capacity * 3)
+			Rehash();
+
+		int mask = capacity - 1;
+		int slot = Mix(hash) & mask;
+		while (SlotState(slot) == SLOT_LIVE)
+			slot = (slot + 1) & mask;
+		if (SlotState(slot) == SLOT_EMPTY)
+			usedSlotCount++;
+		SetSlot(slot, hash, offset, length, storedTime);
+		liveCount++;
+		liveBytes += length;
+	}
+
+	/**
+	 * Moves live slots into a new index, which is large enough to stay at
+	 * most half full, dropping removed slots
+	 */
+	private void Rehash() throws IOException {
+		long[] live = new long[liveCount * 4];
+		int count = 0;
+		for (int i = 0; i < capacity; i++) {
+			if (SlotState(i) != SLOT_LIVE)
+				continue;
+			int position = SlotPosition(i);
+			live[count++] = index.getLong(position);
+			live[count++] = index.getLong(position + 8);
+			live[count++] = index.getInt(position + 16);
+			live[count++] = index.getLong(position + 24);
+		}
+
+		int newCapacity = capacity;
+		while ((liveCount + 1) * 2 > newCapacity)
+			newCapacity *= 2;
+		MapIndex(newCapacity);
+		for (int i = 0; i < count; i += 4)
+			Insert(live[i], live[i + 1], (int) live[i + 2], live[i + 3]);
+	}
+
+	private void SetSlot(int slot, long hash, long offset, int length,
+			long storedTime) {
+		int position = SlotPosition(slot);
+		index.putLong(position, hash);
+		index.putLong(position + 8, offset);
+		index.putInt(position + 16, length);
+		index.putInt(position + 20, SLOT_LIVE);
+		index.putLong(position + 24, storedTime);
+	}
+
+	private void RemoveSlot(int slot) {
+		int position = SlotPosition(slot);
+		index.putInt(position + 20, SLOT_REMOVED);
+		liveCount--;
+		liveBytes -= index.getInt(position + 16);
+	}
+
+	private int SlotState(int slot) {
+		return index.getInt(SlotPosition(slot) + 20);
+	}
+
+	private static int SlotPosition(int slot) {
+		return INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+	}
+
+	/**
+	 * Returns true if record has its magic and its checksum matches, a
+	 * tombstone is valid too
+	 */
+	private static boolean isValid(ByteBuffer record) {
+		int magic = record.getInt(0);
+		return (magic == RECORD_MAGIC || magic == TOMBSTONE_MAGIC)
+				&& record.getInt(4) >= 0
+				&& record.getInt(8) >= 0
+				&& RECORD_HEADER_SIZE + (long) record.getInt(4)
+						+ record.getInt(8) == record.capacity()
+				&& record.getInt(12) == Checksum(record);
+	}
+
+	/**
+	 * Appends a record to end of data, and returns offset it is written at
+	 */
+	private long Append(int magic, byte[] key, byte[] value, long time)
+			throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE
+				+ key.length + value.length);
+		record.putInt(magic).putInt(key.length).putInt(value.length)
+				.putInt(0).putLong(time).put(key).put(value);
+		record.putInt(12, Checksum(record));
+		record.flip();
+		WriteFully(data, record, dataLength);
+
+		long offset = dataLength;
+		dataLength += record.capacity();
+		index.putLong(24, dataLength);
+		return offset;
+	}
+
+	/**
+	 * Compacts if data is over its budget, or if replaced and removed
+	 * records take more space than live ones
+	 */
+	private void CompactIfNeeded() {
+		if (dataLength > getDataBudget()
+				|| (dataLength > MIN_GARBAGE_BYTES && dataLength
+						- DATA_HEADER_SIZE > 2 * liveBytes))
+			Compact();
+	}
+
+	/** Returns checksum of record's time, key and value */
+	private static int Checksum(ByteBuffer record) {
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), 16, record.capacity() - 16);
+		return (int) crc.getValue();
+	}
+
+	/** Returns 64 bit FNV-1a hash of key */
+	private static long Hash(byte[] key) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : key) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/** Folds hash into an int which spreads well over slots */
+	private static int Mix(long hash) {
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * Reads buffer fully from given offset, returns false if data ends before
+	 */
+	private boolean ReadFully(ByteBuffer buffer, long offset)
+			throws IOException {
+		buffer.clear();
+		while (buffer.hasRemaining()) {
+			int read = data.read(buffer, offset + buffer.position());
+			if (read < 0)
+				return false;
+		}
+		return true;
+	}
+
+	private static void WriteFully(FileChannel channel, ByteBuffer buffer,
+			long offset) throws IOException {
+		while (buffer.hasRemaining())
+			channel.write(buffer, offset + buffer.position());
+	}
+
+	/** Copies a record of data to given position of target */
+	private void Transfer(long offset, int length, FileChannel target,
+			long position) throws IOException {
+		long copied = 0;
+		target.position(position);
+		while (copied < length) {
+			long transferred = data.transferTo(offset + copied, length
+					- copied, target);
+			if (transferred <= 0)
+				throw new EOFException("Data ended while compacting");
+			copied += transferred;
+		}
+	}
+
+	/** Returns number of bytes data file can take, next to index */
+	private long getDataBudget() {
+		return maxBytes - INDEX_HEADER_SIZE - (long) capacity * SLOT_SIZE;
+	}
+
+	/**
+	 * @category Getter And Setter
+	 */
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Set maximum number of bytes data and index files can take together,
+	 * store is compacted right away if it is larger
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		this.maxBytes = Math.max(MIN_MAX_BYTES, maxBytes);
+		if (index != null && dataLength > getDataBudget())
+			Compact();
+	}
+
+	/** Returns number of bytes data and index files take */
+	public synchronized long getFootprint() {
+		return dataLength + INDEX_HEADER_SIZE + (long) capacity * SLOT_SIZE;
+	}
+
+	/** Returns number of results in store */
+	public synchronized int size() {
+		return liveCount;
+	}
+
+	public synchronized boolean isOpen() {
+		return index != null;
+	}
+
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+	public synchronized int getWriteCount() {
+		return writeCount;
+	}
+
+	/** Returns number of results evicted by compaction to fit maxBytes */
+	public synchronized int getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Returns number of records which have been dropped, because their
+	 * checksum didn't match or they were torn
+	 */
+	public synchronized int getCorruptionCount() {
+		return corruptionCount;
+	}
+
+	public synchronized int getCompactionCount() {
+		return compactionCount;
+	}
+
+	/** Returns number of reads and writes which failed with an IOException */
+	public synchronized int getErrorCount() {
+		return errorCount;
+	}
+
+}
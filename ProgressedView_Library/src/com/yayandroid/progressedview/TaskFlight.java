@@ -0,0 +1,147 @@
+package com.yayandroid.progressedview;
+
+import java.util.HashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 
+ * A background task in flight, which is shared by every ProgressedView that
+ * starts a task with same key while it is running. The view which has started
+ * it runs the task, others join it and wait, getting its seek progress while
+ * it runs and its result when it finishes. Once it finishes, next task with
+ * same key starts a new flight. A flight never runs a second task, even its
+ * owner joins it as a follower once it has let go of it. Followers are
+ * tasks rather than views, so a view which abandons its task and starts
+ * another one never gets result of the abandoned one.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+final class TaskFlight {
+
+	/** Flights by key, it guards membership of every flight as well */
+	private static final HashMap<String, TaskFlight> flights =
+			new HashMap<String, TaskFlight>();
+
+	private final String key;
+	/** View which runs task, null once it has let go of it for followers */
+	private volatile ProgressedView owner;
+	// Progress is sent to followers from owner's thread, so it iterates
+	// without locking while views rarely join or leave
+	private final CopyOnWriteArrayList<Follower> followers =
+			new CopyOnWriteArrayList<Follower>();
+	private volatile float lastFraction = 0;
+	private boolean isFinished = false;
+
+	/**
+	 * 
+	 * Task of a view which waits for a flight instead of running it. Both
+	 * callbacks come from thread of flight's task
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	interface Follower {
+
+		void OnSharedProgress(long done, long total);
+
+		void OnSharedTaskFinished(Object result);
+
+	}
+
+	private TaskFlight(String key, ProgressedView owner) {
+		this.key = key;
+		this.owner = owner;
+	}
+
+	/**
+	 * Returns flight of given key. If there is one in flight, view's task
+	 * joins it as a follower, otherwise a new one begins with view as its
+	 * owner, which should run the task. Owner of a flight gets it back as it
+	 * is, since its task is already running
+	 */
+	static TaskFlight Join(String key, ProgressedView view, Follower task) {
+		synchronized (flights) {
+			TaskFlight flight = flights.get(key);
+			if (flight == null) {
+				flight = new TaskFlight(key, view);
+				flights.put(key, flight);
+			} else if (flight.owner != view && !flight.followers.contains(task)) {
+				flight.followers.add(task);
+			}
+			return flight;
+		}
+	}
+
+	/**
+	 * Removes follower from flight, so it doesn't get result. Returns false
+	 * if flight has already finished and result is on its way
+	 */
+	boolean Leave(Follower follower) {
+		synchronized (flights) {
+			return !isFinished && followers.remove(follower);
+		}
+	}
+
+	/**
+	 * Gives up flight before its task runs, so next view starts a new one.
+	 * Returns false if there are followers waiting for it, then task has to
+	 * run anyway and flight has no owner from now on, so even the view
+	 * which has abandoned it can only join it as a follower
+	 */
+	boolean Abandon() {
+		synchronized (flights) {
+			if (!followers.isEmpty()) {
+				owner = null;
+				return false;
+			}
+
+			Unregister();
+			return true;
+		}
+	}
+
+	/**
+	 * Sends progress of task to followers, it can be called from any thread
+	 */
+	void Publish(long done, long total) {
+		lastFraction = total > 0 ? Math.min(1, (float) done / total) : 0;
+		for (Follower follower : followers)
+			follower.OnSharedProgress(done, total);
+	}
+
+	/**
+	 * Ends flight with result of task and hands it over to followers, it is
+	 * called from owner's background thread
+	 */
+	void Finish(Object result) {
+		synchronized (flights) {
+			isFinished = true;
+			Unregister();
+		}
+
+		// No one can join or leave anymore, so followers are final
+		for (Follower follower : followers)
+			follower.OnSharedTaskFinished(result);
+	}
+
+	/** Removes flight from registry, unless a newer one has replaced it */
+	private void Unregister() {
+		if (flights.get(key) == this)
+			flights.remove(key);
+	}
+
+	String getKey() {
+		return key;
+	}
+
+	ProgressedView getOwner() {
+		return owner;
+	}
+
+	/** Returns last progress of task between 0 and 1 */
+	float getLastFraction() {
+		return lastFraction;
+	}
+
+}
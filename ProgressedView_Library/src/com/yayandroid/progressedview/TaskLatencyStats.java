@@ -0,0 +1,161 @@
+package com.yayandroid.progressedview;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import android.content.SharedPreferences;
+
+/**
+ * 
+ * Durations of past background tasks of a listener, kept as an exponentially
+ * weighted moving average and a window of recent samples for percentiles.
+ * Stats are shared per listener class, so every view using same listener
+ * learns from each other, and they can be saved to start next launch with
+ * sensible values.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class TaskLatencyStats {
+
+	/** Weight of newest sample in moving average */
+	private static final float SMOOTHING = 0.2f;
+	private static final int WINDOW_SIZE = 32;
+	private static final String KEY_AVERAGE = ".average";
+	private static final String KEY_COUNT = ".count";
+
+	private static final HashMap<String, TaskLatencyStats> registry =
+			new HashMap<String, TaskLatencyStats>();
+
+	private final String key;
+	private final long[] window = new long[WINDOW_SIZE];
+	private final long[] sorted = new long[WINDOW_SIZE];
+	private float average = 0;
+	private int sampleCount = 0;
+	private int windowCount = 0;
+	private int windowIndex = 0;
+
+	private TaskLatencyStats(String key) {
+		this.key = key;
+	}
+
+	/**
+	 * Returns stats of given listener's class, it is created on first call
+	 */
+	public static TaskLatencyStats For(ProgressedViewListener listener) {
+		return For(listener.getClass().getName());
+	}
+
+	/**
+	 * Returns stats of given key, it is created on first call
+	 */
+	public static TaskLatencyStats For(String key) {
+		synchronized (registry) {
+			TaskLatencyStats stats = registry.get(key);
+			if (stats == null) {
+				stats = new TaskLatencyStats(key);
+				registry.put(key, stats);
+			}
+			return stats;
+		}
+	}
+
+	/**
+	 * Saves averages of all stats, so they can be loaded back on next launch
+	 */
+	public static void SaveAll(SharedPreferences preferences) {
+		SharedPreferences.Editor editor = preferences.edit();
+		synchronized (registry) {
+			for (TaskLatencyStats stats : registry.values()) {
+				synchronized (stats) {
+					editor.putFloat(stats.key + KEY_AVERAGE, stats.average);
+					editor.putInt(stats.key + KEY_COUNT, stats.sampleCount);
+				}
+			}
+		}
+		editor.commit();
+	}
+
+	/**
+	 * Loads averages which are saved by SaveAll. Stats which already have
+	 * samples in this launch are left as they are
+	 */
+	public static void LoadAll(SharedPreferences preferences) {
+		for (Map.Entry<String, ?> entry : preferences.getAll().entrySet()) {
+			String name = entry.getKey();
+			if (!name.endsWith(KEY_AVERAGE)
+					|| !(entry.getValue() instanceof Float))
+				continue;
+
+			String key = name.substring(0,
+					name.length() - KEY_AVERAGE.length());
+			TaskLatencyStats stats = For(key);
+			synchronized (stats) {
+				if (stats.sampleCount == 0) {
+					stats.average = (Float) entry.getValue();
+					stats.sampleCount = preferences.getInt(key + KEY_COUNT, 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds duration of a task which has run doBackgroundTask itself, stored
+	 * or shared results would pull average down
+	 * 
+	 * @param duration
+	 *            : Duration in milliseconds
+	 */
+	public synchronized void Record(long duration) {
+		duration = Math.max(0, duration);
+		average = sampleCount == 0 ? duration : average + SMOOTHING
+				* (duration - average);
+		sampleCount++;
+
+		window[windowIndex] = duration;
+		windowIndex = (windowIndex + 1) % WINDOW_SIZE;
+		windowCount = Math.min(WINDOW_SIZE, windowCount + 1);
+	}
+
+	/**
+	 * Returns given percentile of recent durations, or moving average if
+	 * there are no samples in this launch yet
+	 * 
+	 * @param percentile
+	 *            : Percentile between 0 and 100
+	 */
+	public synchronized long getPercentile(int percentile) {
+		if (windowCount == 0)
+			return (long) average;
+
+		System.arraycopy(window, 0, sorted, 0, windowCount);
+		Arrays.sort(sorted, 0, windowCount);
+		int index = (int) Math.ceil(windowCount
+				* Math.max(0, Math.min(100, percentile)) / 100f) - 1;
+		return sorted[Math.max(0, index)];
+	}
+
+	/** Returns moving average of durations in milliseconds */
+	public synchronized long getAverage() {
+		return (long) average;
+	}
+
+	/** Returns number of durations recorded, including loaded ones */
+	public synchronized int getSampleCount() {
+		return sampleCount;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	/** Drops all samples */
+	public synchronized void Reset() {
+		average = 0;
+		sampleCount = 0;
+		windowCount = 0;
+		windowIndex = 0;
+	}
+
+}
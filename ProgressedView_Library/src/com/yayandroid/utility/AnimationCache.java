@@ -0,0 +1,93 @@
+package com.yayandroid.utility;
+
+import java.util.HashMap;
+
+import android.view.animation.Animation;
+import android.view.animation.Animation.AnimationListener;
+
+/**
+ * 
+ * Keeps animations built from AnimationSpecs, so same spec on same host size
+ * gives back same prepared animation instead of building a new one. When host
+ * size changes, previously built animation of that spec gets evicted.
+ * 
+ * IMPORTANT!: An animation can run on only one view at a time, so a cache
+ * should not be shared between views which can animate at the same time.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class AnimationCache {
+
+	private final HashMap<AnimationSpec, Entry> entries =
+			new HashMap<AnimationSpec, Entry>();
+	private final AnimationListener listener;
+	private int hitCount = 0;
+	private int missCount = 0;
+	private int evictionCount = 0;
+
+	private static class Entry {
+		int width, height;
+		Animation animation;
+	}
+
+	/**
+	 * @param listener
+	 *            : Listener to send callback from notifying specs
+	 */
+	public AnimationCache(AnimationListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns animation for given spec and host size, it is built only if
+	 * there is no animation built for same values yet
+	 * 
+	 * @param spec
+	 *            : Spec to build animation from
+	 * @param width
+	 *            : Width of host
+	 * @param height
+	 *            : Height of host
+	 */
+	public Animation Get(AnimationSpec spec, int width, int height) {
+		Entry entry = entries.get(spec);
+		if (entry == null) {
+			entry = new Entry();
+			entries.put(spec, entry);
+		} else if (entry.width == width && entry.height == height) {
+			hitCount++;
+			return entry.animation;
+		} else {
+			evictionCount++;
+		}
+
+		missCount++;
+		entry.width = width;
+		entry.height = height;
+		entry.animation = AnimationHelper.Build(spec, width, height, listener);
+		return entry.animation;
+	}
+
+	/** Removes all built animations */
+	public void Clear() {
+		entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public int getHitCount() {
+		return hitCount;
+	}
+
+	public int getMissCount() {
+		return missCount;
+	}
+
+	public int getEvictionCount() {
+		return evictionCount;
+	}
+
+}
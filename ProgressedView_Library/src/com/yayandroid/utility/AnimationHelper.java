@@ -817,6 +817,44 @@ public class AnimationHelper {
 				listener));
 	}
 
+	/**
+	 * Returns given animations in a set to run all together
+	 * 
+	 * @param anims
+	 *            : Animations to run together
+	 */
+	public static Animation Together(Animation... anims) {
+		return Together(-1, null, null, anims);
+	}
+
+	/**
+	 * Returns given animations in a set to run all together
+	 * 
+	 * @param duration
+	 *            : Animation duration
+	 * @param interpolation
+	 *            : Interpolation to apply all animations
+	 * @param listener
+	 *            : Animation listener to get notified on necessary
+	 * @param anims
+	 *            : Animations to run together
+	 */
+	public static Animation Together(int duration, Interpolator interpolation,
+			AnimationListener listener, Animation... anims) {
+		AnimationSet set = new AnimationSet(true);
+		for (int i = 0; i < anims.length; i++)
+			set.addAnimation(anims[i]);
+
+		if (duration != -1)
+			set.setDuration(duration);
+		if (interpolation != null)
+			set.setInterpolator(interpolation);
+		if (listener != null)
+			set.setAnimationListener(listener);
+
+		return set;
+	}
+
 	/**
 	 * Starts given animations all together
 	 * 
@@ -878,19 +916,66 @@ public class AnimationHelper {
 	public static void StartTogether(View target, int duration,
 			Interpolator interpolation, AnimationListener listener,
 			Animation... anims) {
-		AnimationSet set = new AnimationSet(true);
-		for (int i = 0; i < anims.length; i++)
-			set.addAnimation(anims[i]);
+		target.clearAnimation();
+		target.startAnimation(Together(duration, interpolation, listener,
+				anims));
+	}
 
-		if (duration != -1)
-			set.setDuration(duration);
-		if (interpolation != null)
-			set.setInterpolator(interpolation);
-		if (listener != null)
-			set.setAnimationListener(listener);
+	/**
+	 * Returns animation built from given spec for given host size
+	 * 
+	 * @param spec
+	 *            : Spec to build animation from
+	 * @param width
+	 *            : Host width, translations on X are relative to it
+	 * @param height
+	 *            : Host height, translations on Y are relative to it
+	 * @param listener
+	 *            : Animation listener to send callback, if spec is notifying
+	 */
+	public static Animation Build(AnimationSpec spec, int width, int height,
+			AnimationListener listener) {
+		AnimationListener callback = spec.isNotifying() ? listener : null;
+		int duration = spec.getDuration();
+		Interpolator interpolation = spec.getInterpolation();
+
+		switch (spec.getKind()) {
+		case TRANSLATE_X:
+			return Translate(null, (int) (spec.getFrom() * width),
+					(int) (spec.getTo() * width), 0, 0, duration,
+					interpolation, callback);
+		case TRANSLATE_Y:
+			return Translate(null, 0, 0, (int) (spec.getFrom() * height),
+					(int) (spec.getTo() * height), duration, interpolation,
+					callback);
+		case ALPHA:
+			return Alpha(spec.getFrom(), spec.getTo(), duration,
+					interpolation, callback);
+		case SCALE:
+			return Scale(spec.getFrom(), spec.getTo(), duration,
+					interpolation, callback);
+		case TOGETHER:
+			Animation[] anims = new Animation[spec.getPartCount()];
+			for (int i = 0; i < anims.length; i++)
+				anims[i] = Build(spec.getPart(i), width, height, listener);
+			return Together(-1, interpolation, callback, anims);
+		}
+		return null;
+	}
 
+	/**
+	 * Starts a previously built animation again, so it can be reused instead
+	 * of creating a new one every time
+	 * 
+	 * @param target
+	 *            : Target view to animate
+	 * @param animation
+	 *            : Animation to restart
+	 */
+	public static void Restart(View target, Animation animation) {
 		target.clearAnimation();
-		target.startAnimation(set);
+		animation.reset();
+		target.startAnimation(animation);
 	}
 
 }
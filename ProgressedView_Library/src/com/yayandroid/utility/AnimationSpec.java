@@ -0,0 +1,281 @@
+package com.yayandroid.utility;
+
+import java.util.Arrays;
+
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+/**
+ * 
+ * Immutable description of an animation, so same animations can be described
+ * once in a table and built by AnimationHelper whenever needed. Translations
+ * are given as fractions of host size, e.g. TranslateX(0, 1) moves target by
+ * host's whole width, so one spec fits any size.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public final class AnimationSpec {
+
+	/**
+	 * Enumeration to determine what kind of animation a spec describes
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public enum Kind {
+		TRANSLATE_X, TRANSLATE_Y, ALPHA, SCALE, TOGETHER
+	}
+
+	private static final AnimationSpec[] NO_PARTS = new AnimationSpec[0];
+	/** Sets run with a shared interpolator, just like an AnimationSet */
+	static final Interpolator SET_INTERPOLATION =
+			new AccelerateDecelerateInterpolator();
+
+	private final Kind kind;
+	private final float from, to;
+	private final int duration;
+	private final Interpolator interpolation;
+	private final boolean isNotifying;
+	private final AnimationSpec[] parts;
+	private final int hash;
+
+	private AnimationSpec(Kind kind, float from, float to, int duration,
+			Interpolator interpolation, boolean isNotifying,
+			AnimationSpec[] parts) {
+		this.kind = kind;
+		this.from = from;
+		this.to = to;
+		this.duration = duration;
+		this.interpolation = interpolation;
+		this.isNotifying = isNotifying;
+		this.parts = parts;
+		this.hash = CalculateHash();
+	}
+
+	/**
+	 * Returns spec to translate horizontally, from and to are fractions of
+	 * host width
+	 */
+	public static AnimationSpec TranslateX(float from, float to) {
+		return new AnimationSpec(Kind.TRANSLATE_X, from, to, -1, null, false,
+				NO_PARTS);
+	}
+
+	/**
+	 * Returns spec to translate vertically, from and to are fractions of
+	 * host height
+	 */
+	public static AnimationSpec TranslateY(float from, float to) {
+		return new AnimationSpec(Kind.TRANSLATE_Y, from, to, -1, null, false,
+				NO_PARTS);
+	}
+
+	/** Returns spec to change opacity from given value to given one */
+	public static AnimationSpec Alpha(float from, float to) {
+		return new AnimationSpec(Kind.ALPHA, from, to, -1, null, false,
+				NO_PARTS);
+	}
+
+	/** Returns spec to scale from center from given value to given one */
+	public static AnimationSpec Scale(float from, float to) {
+		return new AnimationSpec(Kind.SCALE, from, to, -1, null, false,
+				NO_PARTS);
+	}
+
+	/** Returns spec to run given specs all together */
+	public static AnimationSpec Together(AnimationSpec... parts) {
+		return new AnimationSpec(Kind.TOGETHER, 0, 0, -1, null, false,
+				parts.clone());
+	}
+
+	/**
+	 * Returns copy of this spec which sends callback to listener given on
+	 * build
+	 */
+	public AnimationSpec Notifying() {
+		return new AnimationSpec(kind, from, to, duration, interpolation,
+				true, parts);
+	}
+
+	/**
+	 * Returns copy of this spec and all of its parts with given duration and
+	 * interpolation
+	 * 
+	 * @param duration
+	 *            : Animation duration
+	 * @param interpolation
+	 *            : Animation interpolation, can be null
+	 */
+	public AnimationSpec Resolve(int duration, Interpolator interpolation) {
+		AnimationSpec[] resolved = NO_PARTS;
+		if (parts.length > 0) {
+			resolved = new AnimationSpec[parts.length];
+			for (int i = 0; i < parts.length; i++)
+				resolved[i] = parts[i].Resolve(duration, interpolation);
+		}
+
+		// Sets don't get interpolation of their own, just like StartTogether
+		return new AnimationSpec(kind, from, to, duration,
+				kind == Kind.TOGETHER ? null : interpolation, isNotifying,
+				resolved);
+	}
+
+	/**
+	 * Returns spec to go back from where this spec would be at given point,
+	 * to where it has started. So a running animation can be reversed from
+	 * its current frame instead of jumping to its end. It goes back along
+	 * the same curve, so an overshooting one doesn't overshoot its start
+	 * 
+	 * @param fraction
+	 *            : Elapsed fraction of this spec's duration, between 0 and 1
+	 * @param duration
+	 *            : Duration of going back
+	 */
+	public AnimationSpec RewindAt(float fraction, int duration) {
+		fraction = Math.max(0, Math.min(1, fraction));
+		if (kind != Kind.TOGETHER)
+			return RewindFrom(getInterpolated(interpolation, fraction),
+					Rewound(interpolation, fraction), duration);
+
+		// Parts of a set move with interpolation of set, not their own
+		Interpolator setInterpolation = interpolation == null
+				? SET_INTERPOLATION : interpolation;
+		float interpolated = getInterpolated(setInterpolation, fraction);
+		AnimationSpec[] rewound = new AnimationSpec[parts.length];
+		for (int i = 0; i < parts.length; i++)
+			rewound[i] = parts[i].RewindFrom(interpolated,
+					parts[i].interpolation, duration);
+		return new AnimationSpec(kind, from, to, duration, Rewound(
+				setInterpolation, fraction), isNotifying, rewound);
+	}
+
+	/**
+	 * Returns spec to go back from where given interpolated fraction puts
+	 * this spec, to its start with given interpolation
+	 */
+	private AnimationSpec RewindFrom(float interpolated,
+			Interpolator interpolation, int duration) {
+		float current = from + (to - from) * interpolated;
+		return new AnimationSpec(kind, current, from, duration, interpolation,
+				isNotifying, NO_PARTS);
+	}
+
+	/**
+	 * Returns interpolation which runs given one backwards from given
+	 * fraction, i.e. 1 - f(fraction * (1 - t)) / f(fraction), so each frame
+	 * of going back matches a frame of going forward. Returns null, i.e.
+	 * linear, if there is no distance to go back
+	 */
+	private static Interpolator Rewound(Interpolator interpolation,
+			float fraction) {
+		float start = getInterpolated(interpolation, fraction);
+		if (start == 0)
+			return null;
+		return new RewoundInterpolator(interpolation, fraction, start);
+	}
+
+	private static float getInterpolated(Interpolator interpolation,
+			float fraction) {
+		return interpolation == null ? fraction : interpolation
+				.getInterpolation(fraction);
+	}
+
+	/**
+	 * 
+	 * Interpolation which runs another one backwards from a fraction, it is
+	 * relative to where that one is at given fraction
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	private static final class RewoundInterpolator implements Interpolator {
+
+		private final Interpolator source;
+		private final float fraction;
+		private final float start;
+
+		RewoundInterpolator(Interpolator source, float fraction, float start) {
+			this.source = source;
+			this.fraction = fraction;
+			this.start = start;
+		}
+
+		@Override
+		public float getInterpolation(float input) {
+			return 1 - getInterpolated(source, fraction * (1 - input)) / start;
+		}
+
+	}
+
+	/**
+	 * @category Getter
+	 */
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public float getFrom() {
+		return from;
+	}
+
+	public float getTo() {
+		return to;
+	}
+
+	public int getDuration() {
+		return duration;
+	}
+
+	public Interpolator getInterpolation() {
+		return interpolation;
+	}
+
+	public boolean isNotifying() {
+		return isNotifying;
+	}
+
+	public int getPartCount() {
+		return parts.length;
+	}
+
+	public AnimationSpec getPart(int index) {
+		return parts[index];
+	}
+
+	private int CalculateHash() {
+		int result = kind.ordinal();
+		result = 31 * result + Float.floatToIntBits(from);
+		result = 31 * result + Float.floatToIntBits(to);
+		result = 31 * result + duration;
+		result = 31 * result
+				+ (interpolation == null ? 0 : interpolation.hashCode());
+		result = 31 * result + (isNotifying ? 1 : 0);
+		result = 31 * result + Arrays.hashCode(parts);
+		return result;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof AnimationSpec))
+			return false;
+
+		AnimationSpec other = (AnimationSpec) o;
+		return hash == other.hash && kind == other.kind
+				&& Float.floatToIntBits(from) == Float.floatToIntBits(other.from)
+				&& Float.floatToIntBits(to) == Float.floatToIntBits(other.to)
+				&& duration == other.duration
+				&& interpolation == other.interpolation
+				&& isNotifying == other.isNotifying
+				&& Arrays.equals(parts, other.parts);
+	}
+
+}
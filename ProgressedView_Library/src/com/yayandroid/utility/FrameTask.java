@@ -0,0 +1,128 @@
+package com.yayandroid.utility;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * 
+ * Work to run on uiThread at most once per frame. It can be scheduled from
+ * any thread and any number of times, all calls until next frame get
+ * coalesced into one doFrame call. On Jelly Bean and above it is driven by
+ * Choreographer, on older versions it is posted to main looper at the next
+ * boundary of a 60 fps frame clock, so work which schedules itself on every
+ * frame doesn't keep looper busy in between.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public abstract class FrameTask {
+
+	private static final Handler uiHandler = new Handler(
+			Looper.getMainLooper());
+	private static final boolean HAS_CHOREOGRAPHER = Build.VERSION.SDK_INT
+			>= Build.VERSION_CODES.JELLY_BEAN;
+	/** Frame interval of looper fallback, which is 60 fps */
+	private static final long FRAME_NANOS = 1000000000L / 60;
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+	private Object frameCallback;
+	/** Time of frame which looper fallback is posted for, on uiThread */
+	private long postedFrameNanos;
+
+	/** Posts frame on uiThread when schedule is called from another thread */
+	private final Runnable scheduleOnUiThread = new Runnable() {
+
+		@Override
+		public void run() {
+			PostFrame();
+		}
+
+	};
+
+	/** Runs frame at its boundary when there is no Choreographer */
+	private final Runnable frameRunnable = new Runnable() {
+
+		@Override
+		public void run() {
+			RunFrame(postedFrameNanos);
+		}
+
+	};
+
+	/**
+	 * Called on uiThread once per frame, if it has been scheduled
+	 * 
+	 * @param frameTimeNanos
+	 *            : Time of frame in nanoseconds
+	 */
+	protected abstract void doFrame(long frameTimeNanos);
+
+	/**
+	 * Schedules doFrame for next frame, it is safe to call from any thread
+	 */
+	public final void schedule() {
+		if (!isScheduled.compareAndSet(false, true))
+			return;
+
+		if (Looper.myLooper() == Looper.getMainLooper())
+			PostFrame();
+		else
+			uiHandler.post(scheduleOnUiThread);
+	}
+
+	/** Returns true if doFrame is waiting for next frame */
+	public final boolean isScheduled() {
+		return isScheduled.get();
+	}
+
+	private void PostFrame() {
+		if (HAS_CHOREOGRAPHER) {
+			ChoreographerFrame.Post(this);
+			return;
+		}
+
+		// All tasks share same frame clock, so ones scheduled in the same
+		// frame run together at its boundary just like with Choreographer
+		long now = System.nanoTime();
+		postedFrameNanos = (now / FRAME_NANOS + 1) * FRAME_NANOS;
+		long delay = (postedFrameNanos - now + NANOS_PER_MILLI - 1)
+				/ NANOS_PER_MILLI;
+		uiHandler.postDelayed(frameRunnable, delay);
+	}
+
+	private void RunFrame(long frameTimeNanos) {
+		// Clear flag first, so doFrame can schedule next frame again
+		isScheduled.set(false);
+		doFrame(frameTimeNanos);
+	}
+
+	/**
+	 * Keeps Choreographer references away from older versions
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private static class ChoreographerFrame {
+
+		static void Post(final FrameTask task) {
+			if (task.frameCallback == null) {
+				task.frameCallback = new Choreographer.FrameCallback() {
+
+					@Override
+					public void doFrame(long frameTimeNanos) {
+						task.RunFrame(frameTimeNanos);
+					}
+
+				};
+			}
+			Choreographer.getInstance().postFrameCallback(
+					(Choreographer.FrameCallback) task.frameCallback);
+		}
+
+	}
+
+}
@@ -0,0 +1,179 @@
+package com.yayandroid.utility;
+
+import java.util.Locale;
+
+import android.view.animation.Interpolator;
+
+/**
+ * 
+ * Compares an interpolator with its LookupInterpolator, in accuracy and in
+ * time per call. It should run on a device with framework interpolators to
+ * decide a resolution, e.g. from a debug menu, and it runs on any JVM with
+ * other Interpolator implementations as well.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class InterpolatorBenchmark {
+
+	/** Probes per table segment, so points between samples are measured */
+	public static final int PROBES_PER_SEGMENT = 16;
+	public static final int DEFAULT_ITERATIONS = 200000;
+	/** Timed calls cycle through this many evenly spread inputs */
+	private static final int TIMED_INPUTS = 1024;
+	/** Step between timed inputs, it is odd so every input gets visited */
+	private static final int TIMED_STEP = 7;
+
+	/**
+	 * Sum of every measured output, it is kept so calls can't be optimized
+	 * away
+	 */
+	private static volatile float sink;
+
+	private InterpolatorBenchmark() {
+	}
+
+	/**
+	 * 
+	 * Result of a benchmark of one interpolator at one resolution
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public static class Result {
+
+		private final Interpolator source;
+		private final int resolution;
+		private final float maxError;
+		private final float meanError;
+		private final double sourceNanos;
+		private final double lookupNanos;
+
+		private Result(Interpolator source, int resolution, float maxError,
+				float meanError, double sourceNanos, double lookupNanos) {
+			this.source = source;
+			this.resolution = resolution;
+			this.maxError = maxError;
+			this.meanError = meanError;
+			this.sourceNanos = sourceNanos;
+			this.lookupNanos = lookupNanos;
+		}
+
+		public Interpolator getSource() {
+			return source;
+		}
+
+		public int getResolution() {
+			return resolution;
+		}
+
+		/** Returns largest difference to source over probed inputs */
+		public float getMaxError() {
+			return maxError;
+		}
+
+		/** Returns average difference to source over probed inputs */
+		public float getMeanError() {
+			return meanError;
+		}
+
+		/** Returns average time of a call to source, in nanoseconds */
+		public double getSourceNanos() {
+			return sourceNanos;
+		}
+
+		/** Returns average time of a call to lookup, in nanoseconds */
+		public double getLookupNanos() {
+			return lookupNanos;
+		}
+
+		/** Returns how many times faster lookup is than source */
+		public double getSpeedUp() {
+			return lookupNanos > 0 ? sourceNanos / lookupNanos : 0;
+		}
+
+		/**
+		 * Returns a line like "BounceInterpolator@256 max 0.00121 mean
+		 * 0.00008, 41.2 ns -> 6.3 ns (6.5x)"
+		 */
+		@Override
+		public String toString() {
+			return String.format(Locale.US,
+					"%s@%d max %.5f mean %.5f, %.1f ns -> %.1f ns (%.1fx)",
+					getName(), resolution, maxError, meanError, sourceNanos,
+					lookupNanos, getSpeedUp());
+		}
+
+		/** Returns class name of source, anonymous ones have no simple name */
+		public String getName() {
+			Class<?> type = source.getClass();
+			return type.isAnonymousClass() ? type.getName() : type
+					.getSimpleName();
+		}
+
+	}
+
+	/**
+	 * Measures lookup version of given interpolator against itself
+	 * 
+	 * @param source
+	 *            : Interpolator to measure, it must be stateless
+	 * @param resolution
+	 *            : Number of segments in lookup table
+	 * @param iterations
+	 *            : Number of calls to time each of them with, more gives
+	 *            steadier times
+	 */
+	public static Result Run(Interpolator source, int resolution, int iterations) {
+		LookupInterpolator lookup = LookupInterpolator.Get(source, resolution);
+		int probes = lookup.getResolution() * PROBES_PER_SEGMENT;
+
+		float maxError = 0;
+		double totalError = 0;
+		for (int i = 0; i <= probes; i++) {
+			float input = (float) i / probes;
+			float error = Math.abs(lookup.getInterpolation(input)
+					- source.getInterpolation(input));
+			maxError = Math.max(maxError, error);
+			totalError += error;
+		}
+
+		// First rounds let JIT compile both of them before they are timed
+		Time(source, iterations);
+		Time(lookup, iterations);
+		double sourceNanos = Time(source, iterations);
+		double lookupNanos = Time(lookup, iterations);
+
+		return new Result(source, lookup.getResolution(), maxError,
+				(float) (totalError / (probes + 1)), sourceNanos, lookupNanos);
+	}
+
+	/**
+	 * Measures given interpolators at given resolution with default number of
+	 * iterations
+	 */
+	public static Result[] RunAll(Interpolator[] sources, int resolution) {
+		Result[] results = new Result[sources.length];
+		for (int i = 0; i < sources.length; i++)
+			results[i] = Run(sources[i], resolution, DEFAULT_ITERATIONS);
+		return results;
+	}
+
+	/**
+	 * Returns average time of a call in nanoseconds, over inputs which walk
+	 * through 0 to 1 like frames of a transition do
+	 */
+	private static double Time(Interpolator interpolator, int iterations) {
+		float sum = 0;
+		int index = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			sum += interpolator.getInterpolation((float) index / TIMED_INPUTS);
+			index = (index + TIMED_STEP) & (TIMED_INPUTS - 1);
+		}
+		long elapsed = System.nanoTime() - start;
+		sink += sum;
+		return iterations > 0 ? (double) elapsed / iterations : 0;
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.yayandroid.utility;
+
+import java.util.ArrayList;
+
+import android.view.animation.Interpolator;
+
+/**
+ * 
+ * Interpolator which samples another interpolator into a table once, and then
+ * answers by linear interpolation between samples. So interpolators with
+ * transcendental math, e.g. Bounce or Cycle, cost a table read per frame.
+ * Instances are cached per source and resolution, use Get to obtain one.
+ * Cache keeps only last MAX_CACHED_TABLES of them, so passing many different
+ * sources doesn't keep them all alive. InterpolatorBenchmark measures how
+ * accurate and how fast a table is compared to its source.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class LookupInterpolator implements Interpolator {
+
+	public static final int DEFAULT_RESOLUTION = 256;
+	/** Built-in interpolations fit many times, and tables are small */
+	public static final int MAX_CACHED_TABLES = 32;
+	private static final int MIN_RESOLUTION = 2;
+
+	private static final ArrayList<LookupInterpolator> cache =
+			new ArrayList<LookupInterpolator>();
+
+	private final Interpolator source;
+	private final int resolution;
+	private final float[] samples;
+
+	private LookupInterpolator(Interpolator source, int resolution) {
+		this.source = source;
+		this.resolution = resolution;
+		this.samples = new float[resolution + 1];
+		for (int i = 0; i <= resolution; i++)
+			samples[i] = source.getInterpolation((float) i / resolution);
+	}
+
+	/**
+	 * Returns lookup version of given interpolator, it is sampled only on the
+	 * first call for same source and resolution, unless it has been evicted
+	 * since by newer ones
+	 * 
+	 * @param source
+	 *            : Interpolator to sample, it must be stateless
+	 * @param resolution
+	 *            : Number of segments in table
+	 */
+	public static LookupInterpolator Get(Interpolator source, int resolution) {
+		resolution = Math.max(MIN_RESOLUTION, resolution);
+		synchronized (cache) {
+			for (int i = 0; i < cache.size(); i++) {
+				LookupInterpolator cached = cache.get(i);
+				if (cached.source == source && cached.resolution == resolution) {
+					// Keep most recently used ones at the end
+					cache.remove(i);
+					cache.add(cached);
+					return cached;
+				}
+			}
+
+			LookupInterpolator created = new LookupInterpolator(source,
+					resolution);
+			if (cache.size() == MAX_CACHED_TABLES)
+				cache.remove(0);
+			cache.add(created);
+			return created;
+		}
+	}
+
+	@Override
+	public float getInterpolation(float input) {
+		if (input <= 0)
+			return samples[0];
+		if (input >= 1)
+			return samples[resolution];
+
+		float position = input * resolution;
+		int index = (int) position;
+		float weight = position - index;
+		return samples[index] + (samples[index + 1] - samples[index]) * weight;
+	}
+
+	public Interpolator getSource() {
+		return source;
+	}
+
+	public int getResolution() {
+		return resolution;
+	}
+
+	/** Returns number of tables which are cached */
+	static int getCachedCount() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+}
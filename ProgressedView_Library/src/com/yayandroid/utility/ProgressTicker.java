@@ -0,0 +1,266 @@
+package com.yayandroid.utility;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 
+ * Single frame clock to advance all running transitions and seek tweens
+ * together, in one callback per frame. Tickables can be started from any
+ * thread without allocating, and batch started ones can be staggered so
+ * they don't all begin in the same frame.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class ProgressTicker {
+
+	private static final ProgressTicker instance = new ProgressTicker();
+
+	private final AtomicReference<Tickable> pending = new AtomicReference<Tickable>();
+	private final ArrayList<Tickable> active = new ArrayList<Tickable>();
+	private long staggerNanos = 0;
+	private long nextStaggerSlot = 0;
+
+	private long frameCount = 0;
+	private long lastFrameCostNanos = 0;
+	private long maxFrameCostNanos = 0;
+	private long totalFrameCostNanos = 0;
+	private int maxActiveCount = 0;
+
+	/**
+	 * 
+	 * Work which gets advanced by ticker on every frame until it finishes
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public static abstract class Tickable {
+
+		private final AtomicBoolean isQueued = new AtomicBoolean(false);
+		private volatile Tickable nextPending;
+		private volatile boolean isStaggered;
+		private volatile boolean isCancelled;
+		private boolean isActive;
+		private long startTimeNanos;
+
+		/**
+		 * Called on uiThread once per frame while it is active
+		 * 
+		 * @param frameTimeNanos
+		 *            : Time of frame in nanoseconds
+		 * @return True to keep ticking on next frame, false if it is finished
+		 */
+		protected abstract boolean onTick(long frameTimeNanos);
+
+		/**
+		 * Called on uiThread after it is removed from ticker, because onTick
+		 * has returned false
+		 */
+		protected void onFinished() {
+
+		}
+
+		/**
+		 * Called on uiThread instead of onFinished, after it is removed from
+		 * ticker because it has been cancelled
+		 */
+		protected void onCancelled() {
+
+		}
+
+		/** Returns frame time which this tickable has started at */
+		protected final long getStartTimeNanos() {
+			return startTimeNanos;
+		}
+
+		/** Returns true if ticker is advancing this tickable */
+		public final boolean isActive() {
+			return isActive;
+		}
+
+	}
+
+	private final FrameTask frame = new FrameTask() {
+
+		@Override
+		protected void doFrame(long frameTimeNanos) {
+			OnFrame(frameTimeNanos);
+		}
+
+	};
+
+	private ProgressTicker() {
+	}
+
+	public static ProgressTicker getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Starts ticking given tickable from next frame on, it is safe to call
+	 * from any thread. If it is already active, it just keeps ticking
+	 */
+	public void Start(Tickable tickable) {
+		Enqueue(tickable, false);
+	}
+
+	/**
+	 * Starts ticking given tickable, but if others have been started just
+	 * before, it waits for its turn up to stagger delay
+	 */
+	public void StartStaggered(Tickable tickable) {
+		Enqueue(tickable, true);
+	}
+
+	/**
+	 * Stops ticking given tickable on next frame, its onCancelled gets called
+	 * then instead of onFinished
+	 */
+	public void Cancel(Tickable tickable) {
+		tickable.isCancelled = true;
+		frame.schedule();
+	}
+
+	private void Enqueue(Tickable tickable, boolean isStaggered) {
+		tickable.isCancelled = false;
+		if (!tickable.isQueued.compareAndSet(false, true))
+			return;
+
+		tickable.isStaggered = isStaggered;
+		Tickable head;
+		do {
+			head = pending.get();
+			tickable.nextPending = head;
+		} while (!pending.compareAndSet(head, tickable));
+
+		frame.schedule();
+	}
+
+	private void OnFrame(long frameTimeNanos) {
+		long begin = System.nanoTime();
+
+		// Pending ones are stacked, so reverse them to start in given order
+		Tickable reversed = null;
+		Tickable tickable = pending.getAndSet(null);
+		while (tickable != null) {
+			Tickable next = tickable.nextPending;
+			tickable.nextPending = reversed;
+			reversed = tickable;
+			tickable = next;
+		}
+
+		while (reversed != null) {
+			Tickable next = reversed.nextPending;
+			reversed.nextPending = null;
+			reversed.isQueued.set(false);
+			Activate(reversed, frameTimeNanos);
+			reversed = next;
+		}
+
+		maxActiveCount = Math.max(maxActiveCount, active.size());
+		for (int i = 0; i < active.size(); i++) {
+			tickable = active.get(i);
+			if (!tickable.isCancelled && frameTimeNanos < tickable.startTimeNanos)
+				continue;
+
+			boolean isCancelled = tickable.isCancelled;
+			if (isCancelled || !tickable.onTick(frameTimeNanos)) {
+				// Swap with last one, so removing doesn't shift the list
+				int last = active.size() - 1;
+				active.set(i, active.get(last));
+				active.remove(last);
+				i--;
+
+				tickable.isActive = false;
+				tickable.isCancelled = false;
+				if (isCancelled)
+					tickable.onCancelled();
+				else
+					tickable.onFinished();
+			}
+		}
+
+		if (!active.isEmpty())
+			frame.schedule();
+
+		lastFrameCostNanos = System.nanoTime() - begin;
+		maxFrameCostNanos = Math.max(maxFrameCostNanos, lastFrameCostNanos);
+		totalFrameCostNanos += lastFrameCostNanos;
+		frameCount++;
+	}
+
+	private void Activate(Tickable tickable, long frameTimeNanos) {
+		if (tickable.isActive)
+			return;
+
+		if (tickable.isStaggered && staggerNanos > 0) {
+			tickable.startTimeNanos = Math.max(frameTimeNanos, nextStaggerSlot);
+			nextStaggerSlot = tickable.startTimeNanos + staggerNanos;
+		} else {
+			tickable.startTimeNanos = frameTimeNanos;
+		}
+
+		tickable.isActive = true;
+		active.add(tickable);
+	}
+
+	/**
+	 * @category Getter And Setter
+	 */
+
+	/**
+	 * Set delay between starts of staggered tickables, 0 disables staggering
+	 * 
+	 * @param staggerDelay
+	 *            : Delay in milliseconds
+	 */
+	public void setStaggerDelay(int staggerDelay) {
+		this.staggerNanos = Math.max(0, staggerDelay) * 1000000L;
+	}
+
+	public int getStaggerDelay() {
+		return (int) (staggerNanos / 1000000L);
+	}
+
+	/** Returns number of tickables which are currently advanced */
+	public int getActiveCount() {
+		return active.size();
+	}
+
+	/** Returns highest number of tickables advanced in a single frame */
+	public int getMaxActiveCount() {
+		return maxActiveCount;
+	}
+
+	/** Returns number of frames ticker has run */
+	public long getFrameCount() {
+		return frameCount;
+	}
+
+	/** Returns time spent in last frame callback, in nanoseconds */
+	public long getLastFrameCostNanos() {
+		return lastFrameCostNanos;
+	}
+
+	/** Returns longest time spent in a frame callback, in nanoseconds */
+	public long getMaxFrameCostNanos() {
+		return maxFrameCostNanos;
+	}
+
+	/** Returns average time spent in a frame callback, in nanoseconds */
+	public long getAverageFrameCostNanos() {
+		return frameCount == 0 ? 0 : totalFrameCostNanos / frameCount;
+	}
+
+	/** Resets frame cost metrics */
+	public void ResetMetrics() {
+		frameCount = 0;
+		lastFrameCostNanos = 0;
+		maxFrameCostNanos = 0;
+		totalFrameCostNanos = 0;
+		maxActiveCount = 0;
+	}
+
+}
@@ -0,0 +1,254 @@
+package com.yayandroid.utility;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewPropertyAnimator;
+import android.view.animation.Animation.AnimationListener;
+import android.view.animation.Interpolator;
+
+/**
+ * 
+ * Runs AnimationSpecs with ViewPropertyAnimator instead of view animations, so
+ * views' real properties change and they can be drawn from hardware layers
+ * while animating. It is available from Honeycomb MR1 and above, callers
+ * should check isSupported first.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+@TargetApi(Build.VERSION_CODES.HONEYCOMB_MR1)
+public class PropertyAnimationHelper {
+
+	private PropertyAnimationHelper() {
+	}
+
+	/** Returns true if property animations can run on this device */
+	public static boolean isSupported() {
+		return Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB_MR1;
+	}
+
+	/**
+	 * Starts given spec on target view's properties
+	 * 
+	 * @param target
+	 *            : Target view to animate
+	 * @param spec
+	 *            : Spec to animate with
+	 * @param width
+	 *            : Host width, translations on X are relative to it
+	 * @param height
+	 *            : Host height, translations on Y are relative to it
+	 * @param listener
+	 *            : Layer listener of target, it is reused on every start
+	 * @param callback
+	 *            : Animation listener to send callback, if spec is notifying
+	 */
+	public static void Start(View target, AnimationSpec spec, int width,
+			int height, LayerListener listener, AnimationListener callback) {
+		// Drop previous listener before cancelling, so a leftover animation
+		// doesn't send an end callback
+		ViewPropertyAnimator animator = target.animate();
+		animator.setListener(null);
+		animator.cancel();
+		listener.RestoreLayer();
+
+		Interpolator interpolation = spec.getInterpolation();
+		if (spec.getKind() == AnimationSpec.Kind.TOGETHER) {
+			for (int i = 0; i < spec.getPartCount(); i++)
+				Apply(target, animator, spec.getPart(i), width, height);
+			if (interpolation == null)
+				interpolation = AnimationSpec.SET_INTERPOLATION;
+		} else {
+			Apply(target, animator, spec, width, height);
+		}
+
+		listener.target = target;
+		listener.callback = spec.isNotifying() || HasNotifyingPart(spec)
+				? callback : null;
+		animator.setDuration(spec.getDuration());
+		animator.setInterpolator(interpolation);
+		animator.setListener(listener);
+	}
+
+	/**
+	 * Sets animated properties of target back to their defaults
+	 * 
+	 * @param target
+	 *            : View to reset
+	 */
+	public static void Reset(View target) {
+		target.setTranslationX(0);
+		target.setTranslationY(0);
+		target.setScaleX(1);
+		target.setScaleY(1);
+		target.setAlpha(1);
+	}
+
+	/**
+	 * Cancels running animation of target and sets its properties back to
+	 * their defaults. Its listener still gets end callback, so layer of
+	 * target is restored
+	 * 
+	 * @param target
+	 *            : View to stop
+	 */
+	public static void Stop(View target) {
+		target.animate().cancel();
+		Reset(target);
+	}
+
+	/**
+	 * Sets starting value of spec and adds ending value to animator
+	 */
+	private static void Apply(View target, ViewPropertyAnimator animator,
+			AnimationSpec spec, int width, int height) {
+		switch (spec.getKind()) {
+		case TRANSLATE_X:
+			target.setTranslationX(spec.getFrom() * width);
+			animator.translationX(spec.getTo() * width);
+			break;
+		case TRANSLATE_Y:
+			target.setTranslationY(spec.getFrom() * height);
+			animator.translationY(spec.getTo() * height);
+			break;
+		case ALPHA:
+			target.setAlpha(spec.getFrom());
+			animator.alpha(spec.getTo());
+			break;
+		case SCALE:
+			target.setScaleX(spec.getFrom());
+			target.setScaleY(spec.getFrom());
+			animator.scaleX(spec.getTo()).scaleY(spec.getTo());
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Sets target's properties to where given spec would be at given point,
+	 * so a spec can be advanced by an outer clock instead of an animator
+	 * 
+	 * @param target
+	 *            : Target view to change
+	 * @param spec
+	 *            : Spec to take values from
+	 * @param width
+	 *            : Host width, translations on X are relative to it
+	 * @param height
+	 *            : Host height, translations on Y are relative to it
+	 * @param fraction
+	 *            : Elapsed fraction of spec's duration, between 0 and 1
+	 */
+	public static void ApplyAt(View target, AnimationSpec spec, int width,
+			int height, float fraction) {
+		Interpolator interpolation = spec.getInterpolation();
+		if (spec.getKind() == AnimationSpec.Kind.TOGETHER) {
+			if (interpolation == null)
+				interpolation = AnimationSpec.SET_INTERPOLATION;
+			float interpolated = interpolation.getInterpolation(fraction);
+			for (int i = 0; i < spec.getPartCount(); i++)
+				Set(target, spec.getPart(i), width, height, interpolated);
+		} else {
+			Set(target, spec, width, height, interpolation == null ? fraction
+					: interpolation.getInterpolation(fraction));
+		}
+	}
+
+	/**
+	 * Puts target on a hardware layer if it is hardware accelerated
+	 * 
+	 * @return Previous layer type to pass to EndLayer, or -1 if nothing has
+	 *         changed
+	 */
+	public static int BeginLayer(View target) {
+		// Hardware layer falls back to software without acceleration, which
+		// would cost more than it saves
+		if (!target.isHardwareAccelerated())
+			return -1;
+
+		int previousLayerType = target.getLayerType();
+		target.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+		return previousLayerType;
+	}
+
+	/**
+	 * Restores layer type of target which is returned from BeginLayer
+	 */
+	public static void EndLayer(View target, int previousLayerType) {
+		if (previousLayerType >= 0)
+			target.setLayerType(previousLayerType, null);
+	}
+
+	/**
+	 * Sets value of spec at given interpolated point
+	 */
+	private static void Set(View target, AnimationSpec spec, int width,
+			int height, float interpolated) {
+		float value = spec.getFrom() + (spec.getTo() - spec.getFrom())
+				* interpolated;
+		switch (spec.getKind()) {
+		case TRANSLATE_X:
+			target.setTranslationX(value * width);
+			break;
+		case TRANSLATE_Y:
+			target.setTranslationY(value * height);
+			break;
+		case ALPHA:
+			target.setAlpha(value);
+			break;
+		case SCALE:
+			target.setScaleX(value);
+			target.setScaleY(value);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private static boolean HasNotifyingPart(AnimationSpec spec) {
+		for (int i = 0; i < spec.getPartCount(); i++)
+			if (spec.getPart(i).isNotifying())
+				return true;
+		return false;
+	}
+
+	/**
+	 * 
+	 * Listener to put target on a hardware layer while it is animating, and
+	 * forward start and end to an AnimationListener
+	 * 
+	 * @author Yahya BAYRAMOGLU
+	 * 
+	 */
+	public static class LayerListener extends AnimatorListenerAdapter {
+
+		private View target;
+		private AnimationListener callback;
+		private int previousLayerType = -1;
+
+		@Override
+		public void onAnimationStart(Animator animation) {
+			previousLayerType = BeginLayer(target);
+			if (callback != null)
+				callback.onAnimationStart(null);
+		}
+
+		@Override
+		public void onAnimationEnd(Animator animation) {
+			RestoreLayer();
+			if (callback != null)
+				callback.onAnimationEnd(null);
+		}
+
+		private void RestoreLayer() {
+			EndLayer(target, previousLayerType);
+			previousLayerType = -1;
+		}
+
+	}
+
+}
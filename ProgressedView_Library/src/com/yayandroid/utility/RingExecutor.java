@@ -0,0 +1,207 @@
+package com.yayandroid.utility;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 
+ * Executor with a bounded set of worker threads, which keeps waiting tasks in
+ * a preallocated ring instead of a linked queue. Handing a task over and
+ * taking it on a worker only move an index and wake a waiting thread, so a
+ * task which is reused on every run, like ProgressedView's, goes through it
+ * without allocating. Ring grows only when more tasks wait than it can hold.
+ * 
+ * It doesn't depend on Android, so it can be used on any JVM.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class RingExecutor implements Executor {
+
+	public static final int DEFAULT_CAPACITY = 16;
+
+	private final ThreadFactory threadFactory;
+	private Runnable[] ring;
+	private int head = 0;
+	private int count = 0;
+	private int parallelism;
+	private int threadCount = 0;
+	private int idleCount = 0;
+
+	/** Worker loop, same instance is given to every thread */
+	private final Runnable worker = new Runnable() {
+
+		@Override
+		public void run() {
+			Runnable task;
+			while ((task = Take()) != null) {
+				boolean hasCompleted = false;
+				try {
+					task.run();
+					hasCompleted = true;
+				} finally {
+					// A failing task takes its thread down just like in a
+					// ThreadPoolExecutor, another one replaces it if needed
+					if (!hasCompleted)
+						OnWorkerDied();
+				}
+			}
+		}
+
+	};
+
+	/**
+	 * @param parallelism
+	 *            : Maximum number of threads, should be at least 1
+	 * @param threadFactory
+	 *            : Factory to create worker threads with, they are created
+	 *            only when tasks are waiting
+	 */
+	public RingExecutor(int parallelism, ThreadFactory threadFactory) {
+		if (threadFactory == null)
+			throw new IllegalArgumentException("Thread factory can not be null");
+
+		this.threadFactory = threadFactory;
+		this.ring = new Runnable[DEFAULT_CAPACITY];
+		setParallelism(parallelism);
+	}
+
+	@Override
+	public synchronized void execute(Runnable task) {
+		if (task == null)
+			throw new NullPointerException("Task can not be null");
+
+		if (count == ring.length)
+			Grow();
+		ring[(head + count) % ring.length] = task;
+		count++;
+
+		// Notified workers count as idle until they wake up, so start more
+		// threads only for tasks which none of them will take
+		if (idleCount > 0)
+			notify();
+		if (count > idleCount && threadCount < parallelism)
+			StartThread();
+	}
+
+	/**
+	 * Removes given task if it is still waiting, so it never runs
+	 * 
+	 * @return True if task has been removed
+	 */
+	public synchronized boolean remove(Runnable task) {
+		for (int i = 0; i < count; i++) {
+			if (ring[(head + i) % ring.length] != task)
+				continue;
+
+			// Close the gap by moving later ones one step back
+			for (int j = i; j < count - 1; j++)
+				ring[(head + j) % ring.length] = ring[(head + j + 1)
+						% ring.length];
+			ring[(head + count - 1) % ring.length] = null;
+			count--;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns next task for a worker, waiting for one if there is none.
+	 * Returns null if worker should stop, because parallelism has been
+	 * lowered
+	 */
+	private synchronized Runnable Take() {
+		while (count == 0) {
+			if (threadCount > parallelism) {
+				threadCount--;
+				return null;
+			}
+
+			idleCount++;
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				// Workers are stopped only by lowering parallelism
+			} finally {
+				idleCount--;
+			}
+		}
+
+		if (threadCount > parallelism) {
+			threadCount--;
+			// Task stays for another worker
+			notify();
+			return null;
+		}
+
+		Runnable task = ring[head];
+		ring[head] = null;
+		head = (head + 1) % ring.length;
+		count--;
+		return task;
+	}
+
+	private synchronized void OnWorkerDied() {
+		threadCount--;
+		if (count > idleCount && threadCount < parallelism)
+			StartThread();
+	}
+
+	private void StartThread() {
+		threadFactory.newThread(worker).start();
+		threadCount++;
+	}
+
+	/** Doubles ring, keeping waiting tasks in order */
+	private void Grow() {
+		Runnable[] grown = new Runnable[ring.length * 2];
+		for (int i = 0; i < count; i++)
+			grown[i] = ring[(head + i) % ring.length];
+		ring = grown;
+		head = 0;
+	}
+
+	/**
+	 * @category Getter And Setter
+	 */
+
+	public synchronized int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Changes how many tasks can run at the same time. Extra threads stop
+	 * once their running task finishes
+	 * 
+	 * @param parallelism
+	 *            : Maximum number of threads, should be at least 1
+	 */
+	public synchronized void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException(
+					"Parallelism should be at least 1");
+
+		this.parallelism = parallelism;
+		int unclaimed = count - idleCount;
+		while (threadCount < parallelism && unclaimed-- > 0)
+			StartThread();
+		// Let extra idle threads see that they should stop
+		notifyAll();
+	}
+
+	/** Returns number of tasks waiting for a thread */
+	public synchronized int getQueuedCount() {
+		return count;
+	}
+
+	/** Returns number of threads which are alive */
+	public synchronized int getThreadCount() {
+		return threadCount;
+	}
+
+	/** Returns number of tasks ring can hold before it grows */
+	public synchronized int getCapacity() {
+		return ring.length;
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.yayandroid.utility;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.os.Process;
+
+/**
+ * Shared, bounded thread pool to run background tasks of ProgressedViews.
+ * Tasks which belong to different views run in parallel up to the given
+ * parallelism, instead of waiting each other on a single serial queue.
+ * Waiting tasks are kept in a RingExecutor, so handing a reused task over
+ * doesn't allocate.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class TaskExecutor {
+
+	private static final String THREAD_NAME = "ProgressedView-Task #";
+	private static final int DEFAULT_PARALLELISM = Math.max(2, Math.min(4,
+			Runtime.getRuntime().availableProcessors()));
+
+	private static RingExecutor defaultExecutor;
+
+	private TaskExecutor() {
+	}
+
+	/** Thread factory to create named threads with background priority */
+	private static final ThreadFactory threadFactory = new ThreadFactory() {
+
+		private final AtomicInteger count = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			Thread thread = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+					runnable.run();
+				}
+
+			}, THREAD_NAME + count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	};
+
+	/**
+	 * Returns app-wide default executor, it gets created at first call
+	 */
+	public static synchronized Executor getDefault() {
+		if (defaultExecutor == null)
+			defaultExecutor = new RingExecutor(DEFAULT_PARALLELISM,
+					threadFactory);
+		return defaultExecutor;
+	}
+
+	/**
+	 * Changes how many tasks can run at the same time on default executor
+	 * 
+	 * @param parallelism
+	 *            : Maximum number of threads, should be at least 1
+	 */
+	public static synchronized void setMaxParallelism(int parallelism) {
+		((RingExecutor) getDefault()).setParallelism(parallelism);
+	}
+
+	/**
+	 * Returns how many tasks can run at the same time on default executor
+	 */
+	public static synchronized int getMaxParallelism() {
+		return ((RingExecutor) getDefault()).getParallelism();
+	}
+
+}
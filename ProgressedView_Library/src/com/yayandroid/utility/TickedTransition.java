@@ -0,0 +1,140 @@
+package com.yayandroid.utility;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.View;
+import android.view.animation.Animation.AnimationListener;
+
+/**
+ * 
+ * Transition of a source and a target view which is advanced by shared
+ * ProgressTicker, instead of each view running its own animation. Specs are
+ * applied to views' real properties just like PropertyAnimationHelper does,
+ * so it needs Honeycomb MR1 and above as well.
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+@TargetApi(Build.VERSION_CODES.HONEYCOMB_MR1)
+public class TickedTransition extends ProgressTicker.Tickable {
+
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	private final AnimationListener listener;
+	private View source, target;
+	private AnimationSpec sourceSpec, targetSpec;
+	private int width, height;
+	private int sourceLayerType = -1, targetLayerType = -1;
+	private boolean isStarted = false;
+	private long beginNanos = -1;
+	private long lastFrameNanos = -1;
+
+	/**
+	 * @param listener
+	 *            : Listener to send start and end of transition, a cancelled
+	 *            transition doesn't send its end
+	 */
+	public TickedTransition(AnimationListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets views and specs of next run. If transition is active, it goes on
+	 * with given specs from next frame on, e.g. to rewind it
+	 * 
+	 * @param width
+	 *            : Host width, translations on X are relative to it
+	 * @param height
+	 *            : Host height, translations on Y are relative to it
+	 */
+	public void Set(View source, AnimationSpec sourceSpec, View target,
+			AnimationSpec targetSpec, int width, int height) {
+		// Views may change, so give back layers of previous ones first
+		if (isStarted) {
+			EndLayers();
+			isStarted = false;
+		}
+		beginNanos = -1;
+		lastFrameNanos = -1;
+
+		this.source = source;
+		this.sourceSpec = sourceSpec;
+		this.target = target;
+		this.targetSpec = targetSpec;
+		this.width = width;
+		this.height = height;
+
+		// Put views at their starting point, in case they get drawn before
+		// first tick
+		PropertyAnimationHelper.ApplyAt(source, sourceSpec, width, height, 0);
+		PropertyAnimationHelper.ApplyAt(target, targetSpec, width, height, 0);
+	}
+
+	@Override
+	protected boolean onTick(long frameTimeNanos) {
+		if (!isStarted) {
+			isStarted = true;
+			sourceLayerType = PropertyAnimationHelper.BeginLayer(source);
+			targetLayerType = PropertyAnimationHelper.BeginLayer(target);
+			listener.onAnimationStart(null);
+		}
+		if (beginNanos < 0)
+			beginNanos = frameTimeNanos;
+		lastFrameNanos = frameTimeNanos;
+
+		long elapsed = frameTimeNanos - beginNanos;
+		float sourceFraction = getFraction(elapsed, sourceSpec);
+		float targetFraction = getFraction(elapsed, targetSpec);
+		PropertyAnimationHelper.ApplyAt(source, sourceSpec, width, height,
+				sourceFraction);
+		PropertyAnimationHelper.ApplyAt(target, targetSpec, width, height,
+				targetFraction);
+
+		return sourceFraction < 1 || targetFraction < 1;
+	}
+
+	@Override
+	protected void onFinished() {
+		Release();
+		listener.onAnimationEnd(null);
+	}
+
+	@Override
+	protected void onCancelled() {
+		// Whoever has cancelled it has already put views where they should be
+		Release();
+	}
+
+	/** Returns milliseconds this run has been advanced for */
+	public int getElapsed() {
+		if (beginNanos < 0)
+			return 0;
+		return (int) ((lastFrameNanos - beginNanos) / NANOS_PER_MILLI);
+	}
+
+	/** Gives layers back and gets ready for next run */
+	private void Release() {
+		if (isStarted) {
+			EndLayers();
+			isStarted = false;
+		}
+		beginNanos = -1;
+		lastFrameNanos = -1;
+	}
+
+	private void EndLayers() {
+		PropertyAnimationHelper.EndLayer(source, sourceLayerType);
+		PropertyAnimationHelper.EndLayer(target, targetLayerType);
+		sourceLayerType = -1;
+		targetLayerType = -1;
+	}
+
+	/** Returns elapsed fraction of given spec, between 0 and 1 */
+	private static float getFraction(long elapsedNanos, AnimationSpec spec) {
+		long duration = spec.getDuration() * NANOS_PER_MILLI;
+		if (duration <= 0 || elapsedNanos >= duration)
+			return 1;
+		return elapsedNanos <= 0 ? 0 : (float) elapsedNanos / duration;
+	}
+
+}
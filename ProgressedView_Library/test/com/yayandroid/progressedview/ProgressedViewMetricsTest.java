@@ -0,0 +1,93 @@
+package com.yayandroid.progressedview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.yayandroid.progressedview.ProgressedViewMetrics.Phase;
+import com.yayandroid.progressedview.ProgressedViewMetrics.Span;
+
+/**
+ * 
+ * Tests of ProgressedViewMetrics, how phases of a cycle turn into spans
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class ProgressedViewMetricsTest {
+
+	@Test
+	public void recordsSpansOfClickCycle() {
+		ProgressedViewMetrics metrics = new ProgressedViewMetrics();
+		metrics.Mark(Phase.CLICK);
+		metrics.Mark(Phase.FORWARD_START);
+		metrics.Mark(Phase.FORWARD_END);
+		metrics.Mark(Phase.TASK_START);
+		metrics.Mark(Phase.TASK_END);
+		metrics.Mark(Phase.REVERSE_START);
+		metrics.Mark(Phase.REVERSE_END);
+		metrics.Mark(Phase.FINISHED);
+
+		ProgressedViewMetrics.Snapshot snapshot = metrics.getSnapshot();
+		for (Span span : Span.values())
+			assertEquals(span.name(), 1, snapshot.getCount(span));
+	}
+
+	@Test
+	public void claimedClickKeepsTaskStartedOnTouchDown() {
+		ProgressedViewMetrics metrics = new ProgressedViewMetrics();
+		metrics.Mark(Phase.CLICK);
+		metrics.Mark(Phase.FINISHED);
+
+		// Touch down starts task before next click
+		metrics.Reset();
+		metrics.Mark(Phase.TASK_START);
+		long taskStart = metrics.getPhaseTime(Phase.TASK_START);
+		metrics.MarkClaimedClick();
+		metrics.Mark(Phase.TASK_END);
+		metrics.Mark(Phase.FINISHED);
+
+		ProgressedViewMetrics.Snapshot snapshot = metrics.getSnapshot();
+		assertEquals(taskStart, metrics.getPhaseTime(Phase.TASK_START));
+		assertEquals(1, snapshot.getCount(Span.CLICK_TO_TASK));
+		assertEquals(0, snapshot.getMaxNanos(Span.CLICK_TO_TASK));
+		assertEquals(1, snapshot.getCount(Span.TASK));
+		assertEquals(2, snapshot.getCount(Span.CLICK_TO_FINISH));
+	}
+
+	@Test
+	public void recordsClickToTaskOnceWhenTaskStartsAfterClaim() {
+		ProgressedViewMetrics metrics = new ProgressedViewMetrics();
+		metrics.Reset();
+		metrics.MarkClaimedClick();
+		metrics.Mark(Phase.TASK_START);
+		metrics.Mark(Phase.TASK_START);
+
+		ProgressedViewMetrics.Snapshot snapshot = metrics.getSnapshot();
+		assertEquals(1, snapshot.getCount(Span.CLICK_TO_TASK));
+		assertTrue(metrics.getPhaseTime(Phase.CLICK) > 0);
+	}
+
+	@Test
+	public void recordsClickToTaskOnceWhenTheyRace() throws InterruptedException {
+		final ProgressedViewMetrics metrics = new ProgressedViewMetrics();
+		for (int i = 0; i < 1000; i++) {
+			metrics.Reset();
+			Thread task = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					metrics.Mark(Phase.TASK_START);
+				}
+
+			});
+			task.start();
+			metrics.MarkClaimedClick();
+			task.join();
+		}
+
+		assertEquals(1000, metrics.getSnapshot().getCount(Span.CLICK_TO_TASK));
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.yayandroid.progressedview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 
+ * Tests of ResultCache, how results get stale, expire and get evicted
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class ResultCacheTest {
+
+	private static final long MINUTE = 60 * 1000L;
+	private static final long HOUR = 60 * MINUTE;
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void servesFreshResult() {
+		ResultCache<String> cache = new ResultCache<String>(4, MINUTE);
+		cache.Put("a", "result");
+
+		ResultCache.Entry<String> entry = cache.Get("a");
+		assertEquals("result", entry.getValue());
+		assertFalse(entry.isStale());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void servesStaleResultUntilItExpires() throws InterruptedException {
+		ResultCache<String> cache = new ResultCache<String>(4, 20, MINUTE);
+		cache.Put("a", "result");
+		Thread.sleep(40);
+
+		assertTrue(cache.Get("a").isStale());
+		assertEquals(1, cache.getStaleHitCount());
+
+		cache.setStaleTime(0);
+		cache.setTimeToLive(0);
+		cache.Put("b", "result");
+		assertNull(cache.Get("b"));
+		assertEquals(1, cache.getExpirationCount());
+	}
+
+	@Test
+	public void keepsAgeOfResultStoredBefore() {
+		// Like a result read back from disk an hour after it was stored
+		long storedTime = System.currentTimeMillis() - HOUR;
+		assertTrue(new ResultCache.Entry<String>("a", "result", storedTime,
+				MINUTE, 0).isStale());
+		assertFalse(new ResultCache.Entry<String>("a", "result", storedTime,
+				2 * HOUR, 0).isStale());
+	}
+
+	@Test
+	public void resultStoredInFutureIsNotFresherThanNew() {
+		// Wall clock has been set back since result was stored
+		long storedTime = System.currentTimeMillis() + HOUR;
+		assertTrue(new ResultCache.Entry<String>("a", "result", storedTime,
+				0, 0).isStale());
+		assertFalse(new ResultCache.Entry<String>("a", "result", storedTime,
+				MINUTE, 0).isStale());
+	}
+
+	@Test
+	public void neverGetsStaleWithForever() {
+		long storedTime = System.currentTimeMillis() - 1000 * HOUR;
+		assertFalse(new ResultCache.Entry<String>("a", "result", storedTime,
+				ResultCache.FOREVER, 0).isStale());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		ResultCache<String> cache = new ResultCache<String>(2,
+				ResultCache.FOREVER);
+		cache.Put("a", "1");
+		cache.Put("b", "2");
+		cache.Get("a");
+		cache.Put("c", "3");
+
+		assertNull(cache.Peek("b"));
+		assertEquals("1", cache.Peek("a").getValue());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	public void readsDiskOnlyOnLoad() throws IOException {
+		ResultDiskStore<String> store = new ResultDiskStore<String>(
+				folder.getRoot(), new ResultDiskStore.StringSerializer(),
+				ResultDiskStore.DEFAULT_MAX_BYTES);
+		ResultCache<String> previous = new ResultCache<String>();
+		previous.setDiskStore(store);
+		previous.Put("a", "result");
+
+		ResultCache<String> cache = new ResultCache<String>();
+		cache.setDiskStore(store);
+		assertNull(cache.Get("a"));
+		assertNull(cache.Peek("a"));
+		assertEquals(0, cache.getDiskHitCount());
+
+		assertEquals("result", cache.Load("a").getValue());
+		assertEquals(1, cache.getDiskHitCount());
+		assertEquals("result", cache.Get("a").getValue());
+		store.Close();
+	}
+
+	@Test
+	public void doesNotKeepNullResult() {
+		ResultCache<String> cache = new ResultCache<String>();
+		cache.Put("a", null);
+		assertEquals(0, cache.size());
+	}
+
+}
@@ -0,0 +1,243 @@
+package com.yayandroid.progressedview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 
+ * Tests of ResultDiskStore, how results survive reopening, crashes and
+ * corruption, and how files are kept in their budget
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class ResultDiskStoreTest {
+
+	private static final String DATA_FILE = "results.dat";
+	private static final String INDEX_FILE = "results.idx";
+	private static final long MINUTE = 60 * 1000L;
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private File directory;
+	private ResultDiskStore<String> store;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = folder.getRoot();
+		store = Open(ResultDiskStore.DEFAULT_MAX_BYTES);
+	}
+
+	@After
+	public void tearDown() {
+		store.Close();
+	}
+
+	@Test
+	public void readsResultsBackAfterReopen() throws IOException {
+		Write("a", "first");
+		Write("b", "second");
+		Write("a", "replaced");
+		Reopen();
+
+		assertEquals("replaced", Read("a"));
+		assertEquals("second", Read("b"));
+		assertEquals(2, store.size());
+	}
+
+	@Test
+	public void dropsTornTailAndKeepsRecordsBeforeIt() throws IOException {
+		Write("a", "first");
+		Write("b", "second");
+		store.Close();
+
+		// A crash in the middle of last append leaves part of it
+		RandomAccessFile data = new RandomAccessFile(new File(directory,
+				DATA_FILE), "rw");
+		data.setLength(data.length() - 3);
+		data.close();
+		new File(directory, INDEX_FILE).delete();
+		store = Open(ResultDiskStore.DEFAULT_MAX_BYTES);
+
+		assertEquals("first", Read("a"));
+		assertNull(Read("b"));
+		assertEquals(1, store.getCorruptionCount());
+
+		// Data is cut at torn record, so next append is readable
+		Write("b", "again");
+		Reopen();
+		assertEquals("again", Read("b"));
+	}
+
+	@Test
+	public void dropsRecordWhoseChecksumDoesNotMatch() throws IOException {
+		Write("a", "first");
+		Write("b", "second");
+		store.Close();
+
+		// Last byte of data is last byte of b's value
+		RandomAccessFile data = new RandomAccessFile(new File(directory,
+				DATA_FILE), "rw");
+		data.seek(data.length() - 1);
+		int last = data.read();
+		data.seek(data.length() - 1);
+		data.write(last ^ 0xff);
+		data.close();
+		store = Open(ResultDiskStore.DEFAULT_MAX_BYTES);
+
+		assertEquals("first", Read("a"));
+		assertNull(Read("b"));
+		assertEquals(1, store.getCorruptionCount());
+		assertEquals(1, store.size());
+	}
+
+	@Test
+	public void rebuildsMissingIndexFromData() throws IOException {
+		for (int i = 0; i < 200; i++)
+			Write("key" + i, "value" + i);
+		store.Close();
+		assertTrue(new File(directory, INDEX_FILE).delete());
+		store = Open(ResultDiskStore.DEFAULT_MAX_BYTES);
+
+		assertEquals(200, store.size());
+		for (int i = 0; i < 200; i++)
+			assertEquals("value" + i, Read("key" + i));
+	}
+
+	@Test
+	public void keepsRemovedResultRemoved() throws IOException {
+		Write("a", "first");
+		Write("b", "second");
+		store.Remove("a");
+		assertNull(Read("a"));
+
+		Reopen();
+		assertNull(Read("a"));
+		assertEquals("second", Read("b"));
+
+		// Index rebuilt from data sees tombstone as well
+		store.Close();
+		assertTrue(new File(directory, INDEX_FILE).delete());
+		store = Open(ResultDiskStore.DEFAULT_MAX_BYTES);
+		assertNull(Read("a"));
+		assertEquals("second", Read("b"));
+		assertEquals(1, store.size());
+
+		// A result written after removal comes back
+		Write("a", "again");
+		store.Close();
+		assertTrue(new File(directory, INDEX_FILE).delete());
+		store = Open(ResultDiskStore.DEFAULT_MAX_BYTES);
+		assertEquals("again", Read("a"));
+	}
+
+	@Test
+	public void keepsExpiredResultRemoved() throws IOException {
+		// Stored an hour ago, and cache keeps results for a minute
+		store.Write("a", "old", System.currentTimeMillis() - 60 * MINUTE);
+		ResultCache<String> cache = new ResultCache<String>(4, MINUTE);
+		cache.setDiskStore(store);
+		assertNull(cache.Load("a"));
+
+		store.Close();
+		assertTrue(new File(directory, INDEX_FILE).delete());
+		store = Open(ResultDiskStore.DEFAULT_MAX_BYTES);
+		assertNull(Read("a"));
+		assertEquals(0, store.size());
+	}
+
+	@Test
+	public void evictsOldestResultsToStayInBudget() throws IOException {
+		store.Close();
+		store = Open(ResultDiskStore.MIN_MAX_BYTES);
+		String value = Repeat('x', 1024);
+		for (int i = 0; i < 200; i++)
+			Write("key" + i, value + i);
+
+		assertTrue(store.getCompactionCount() > 0);
+		assertTrue(store.getEvictionCount() > 0);
+		assertTrue(store.getFootprint() <= ResultDiskStore.MIN_MAX_BYTES);
+		assertEquals(value + 199, Read("key199"));
+		assertNull(Read("key0"));
+
+		// Compacted data is read back like any other
+		int size = store.size();
+		Reopen();
+		assertEquals(size, store.size());
+		assertEquals(value + 199, Read("key199"));
+	}
+
+	@Test
+	public void compactsAwayReplacedAndRemovedRecords() throws IOException {
+		String value = Repeat('x', 1024);
+		for (int i = 0; i < 200; i++) {
+			Write("a", value + i);
+			Write("b", value + i);
+			store.Remove("b");
+		}
+
+		assertTrue(store.getCompactionCount() > 0);
+		assertEquals(0, store.getEvictionCount());
+		assertTrue(store.getFootprint() < 200 * 1024);
+		assertEquals(value + 199, Read("a"));
+		assertNull(Read("b"));
+
+		store.Close();
+		assertTrue(new File(directory, INDEX_FILE).delete());
+		store = Open(ResultDiskStore.DEFAULT_MAX_BYTES);
+		assertEquals(value + 199, Read("a"));
+		assertNull(Read("b"));
+	}
+
+	@Test
+	public void clearRemovesEverything() throws IOException {
+		Write("a", "first");
+		store.Clear();
+		assertNull(Read("a"));
+
+		Reopen();
+		assertNull(Read("a"));
+		assertEquals(0, store.size());
+	}
+
+	private ResultDiskStore<String> Open(long maxBytes) throws IOException {
+		return new ResultDiskStore<String>(directory,
+				new ResultDiskStore.StringSerializer(), maxBytes);
+	}
+
+	private void Reopen() throws IOException {
+		long maxBytes = store.getMaxBytes();
+		store.Close();
+		store = Open(maxBytes);
+	}
+
+	private void Write(String key, String value) {
+		store.Write(key, value, System.currentTimeMillis());
+	}
+
+	private String Read(String key) {
+		ResultCache.Entry<String> entry = store.Read(key, ResultCache.FOREVER,
+				0);
+		return entry == null ? null : entry.getValue();
+	}
+
+	private static String Repeat(char c, int count) {
+		StringBuilder builder = new StringBuilder(count);
+		for (int i = 0; i < count; i++)
+			builder.append(c);
+		return builder.toString();
+	}
+
+}
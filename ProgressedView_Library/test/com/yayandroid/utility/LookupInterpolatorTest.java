@@ -0,0 +1,216 @@
+package com.yayandroid.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import android.view.animation.Interpolator;
+
+/**
+ * 
+ * Tests of LookupInterpolator's accuracy and cache. Timing is left to
+ * sample's benchmark menu, which runs on a device. Framework interpolators
+ * are only stubs on a JVM, so same formulas are written here as plain
+ * Interpolators
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class LookupInterpolatorTest {
+
+	/** Smooth curves hardly differ from their table at default resolution */
+	private static final float SMOOTH_MAX_ERROR = 0.001f;
+	/** Bounce has corners between samples, so it differs a bit more */
+	private static final float BOUNCE_MAX_ERROR = 0.01f;
+
+	private static final Interpolator ACCELERATE = new Accelerate();
+	private static final Interpolator DECELERATE = new Decelerate();
+	private static final Interpolator ACCELERATE_DECELERATE = new AccelerateDecelerate();
+	private static final Interpolator ANTICIPATE = new Anticipate();
+	private static final Interpolator OVERSHOOT = new Overshoot();
+	private static final Interpolator ANTICIPATE_OVERSHOOT = new AnticipateOvershoot();
+	private static final Interpolator CYCLE = new Cycle();
+	private static final Interpolator BOUNCE = new Bounce();
+
+	private static final Interpolator[] SMOOTH = { ACCELERATE, DECELERATE,
+			ACCELERATE_DECELERATE, ANTICIPATE, OVERSHOOT,
+			ANTICIPATE_OVERSHOOT, CYCLE };
+
+	@Test
+	public void matchesSmoothInterpolatorsAtDefaultResolution() {
+		for (Interpolator source : SMOOTH) {
+			InterpolatorBenchmark.Result result = InterpolatorBenchmark.Run(
+					source, LookupInterpolator.DEFAULT_RESOLUTION, 0);
+			assertTrue(result.toString(),
+					result.getMaxError() < SMOOTH_MAX_ERROR);
+		}
+
+	}
+
+	@Test
+	public void matchesBounceAtDefaultResolution() {
+		InterpolatorBenchmark.Result result = InterpolatorBenchmark.Run(
+				BOUNCE, LookupInterpolator.DEFAULT_RESOLUTION, 0);
+		assertTrue(result.toString(), result.getMaxError() < BOUNCE_MAX_ERROR);
+	}
+
+	@Test
+	public void errorShrinksWithResolution() {
+		float previous = Float.MAX_VALUE;
+		for (int resolution = 16; resolution <= 1024; resolution *= 4) {
+			float error = InterpolatorBenchmark.Run(CYCLE, resolution, 0)
+					.getMaxError();
+			assertTrue(error < previous);
+			previous = error;
+		}
+
+	}
+
+	@Test
+	public void keepsEndsExact() {
+		for (Interpolator source : SMOOTH) {
+			LookupInterpolator lookup = LookupInterpolator.Get(source,
+					LookupInterpolator.DEFAULT_RESOLUTION);
+			assertEquals(source.getInterpolation(0), lookup.getInterpolation(0),
+					0);
+			assertEquals(source.getInterpolation(1), lookup.getInterpolation(1),
+					0);
+			assertEquals(source.getInterpolation(1), lookup.getInterpolation(2),
+					0);
+		}
+
+	}
+
+	@Test
+	public void returnsCachedTableForSameSourceAndResolution() {
+		LookupInterpolator first = LookupInterpolator.Get(BOUNCE, 64);
+		assertSame(first, LookupInterpolator.Get(BOUNCE, 64));
+		assertNotSame(first, LookupInterpolator.Get(BOUNCE, 128));
+	}
+
+	@Test
+	public void cacheIsBoundedBySize() {
+		LookupInterpolator kept = LookupInterpolator.Get(OVERSHOOT, 32);
+		for (int i = 0; i < LookupInterpolator.MAX_CACHED_TABLES * 4; i++) {
+			LookupInterpolator.Get(new Interpolator() {
+
+				@Override
+				public float getInterpolation(float input) {
+					return input;
+				}
+
+			}, 32);
+			// Recently used one stays while others are evicted around it
+			assertSame(kept, LookupInterpolator.Get(OVERSHOOT, 32));
+		}
+		assertEquals(LookupInterpolator.MAX_CACHED_TABLES,
+				LookupInterpolator.getCachedCount());
+	}
+
+	/** Same formula as framework's, and so are the ones below */
+	private static class Accelerate implements Interpolator {
+
+		@Override
+		public float getInterpolation(float input) {
+			return input * input;
+		}
+
+	}
+
+	private static class Decelerate implements Interpolator {
+
+		@Override
+		public float getInterpolation(float input) {
+			return 1.0f - (1.0f - input) * (1.0f - input);
+		}
+
+	}
+
+	private static class AccelerateDecelerate implements Interpolator {
+
+		@Override
+		public float getInterpolation(float input) {
+			return (float) (Math.cos((input + 1) * Math.PI) / 2.0f) + 0.5f;
+		}
+
+	}
+
+	private static class Anticipate implements Interpolator {
+
+		private final float tension = 2.0f;
+
+		@Override
+		public float getInterpolation(float t) {
+			return t * t * ((tension + 1) * t - tension);
+		}
+
+	}
+
+	private static class Overshoot implements Interpolator {
+
+		private final float tension = 2.0f;
+
+		@Override
+		public float getInterpolation(float t) {
+			t -= 1.0f;
+			return t * t * ((tension + 1) * t + tension) + 1.0f;
+		}
+
+	}
+
+	private static class AnticipateOvershoot implements Interpolator {
+
+		private final float tension = 2.0f * 1.5f;
+
+		@Override
+		public float getInterpolation(float t) {
+			if (t < 0.5f)
+				return 0.5f * a(t * 2.0f, tension);
+			else
+				return 0.5f * (o(t * 2.0f - 2.0f, tension) + 2.0f);
+		}
+
+		private float a(float t, float s) {
+			return t * t * ((s + 1) * t - s);
+		}
+
+		private float o(float t, float s) {
+			return t * t * ((s + 1) * t + s);
+		}
+
+	}
+
+	private static class Cycle implements Interpolator {
+
+		@Override
+		public float getInterpolation(float input) {
+			return (float) (Math.sin(2 * Math.PI * input));
+		}
+
+	}
+
+	private static class Bounce implements Interpolator {
+
+		@Override
+		public float getInterpolation(float t) {
+			t *= 1.1226f;
+			if (t < 0.3535f)
+				return bounce(t);
+			else if (t < 0.7408f)
+				return bounce(t - 0.54719f) + 0.7f;
+			else if (t < 0.9644f)
+				return bounce(t - 0.8526f) + 0.9f;
+			else
+				return bounce(t - 1.0435f) + 0.95f;
+		}
+
+		private float bounce(float t) {
+			return t * t * 8.0f;
+		}
+
+	}
+
+}
@@ -0,0 +1,282 @@
+package com.yayandroid.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 
+ * Tests of RingExecutor, including that a reused task goes through it
+ * without allocating on either side once it is warmed up
+ * 
+ * @author Yahya BAYRAMOGLU
+ * 
+ */
+public class RingExecutorTest {
+
+	private static final int WARM_UP_RUNS = 20000;
+	private static final int MEASURED_RUNS = 10000;
+
+	private final List<Thread> threads = Collections
+			.synchronizedList(new ArrayList<Thread>());
+	private final ThreadFactory threadFactory = new ThreadFactory() {
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "RingExecutorTest");
+			thread.setDaemon(true);
+			threads.add(thread);
+			return thread;
+		}
+
+	};
+
+	private RingExecutor executor;
+
+	@Before
+	public void setUp() {
+		executor = new RingExecutor(1, threadFactory);
+	}
+
+	@Test
+	public void runsTasksInOrderOnSingleThread() throws InterruptedException {
+		final List<Integer> order = Collections
+				.synchronizedList(new ArrayList<Integer>());
+		final CountDownLatch done = new CountDownLatch(100);
+		for (int i = 0; i < 100; i++) {
+			final int value = i;
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					order.add(value);
+					done.countDown();
+				}
+
+			});
+		}
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 100; i++)
+			assertEquals(i, order.get(i).intValue());
+		assertEquals(1, executor.getThreadCount());
+		// 100 waiting tasks don't fit into default ring
+		assertTrue(executor.getCapacity() > RingExecutor.DEFAULT_CAPACITY);
+	}
+
+	@Test
+	public void removedTaskNeverRuns() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(2);
+		final AtomicInteger removedRuns = new AtomicInteger();
+		Runnable blocker = new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				done.countDown();
+			}
+
+		};
+		Runnable removed = new Runnable() {
+
+			@Override
+			public void run() {
+				removedRuns.incrementAndGet();
+			}
+
+		};
+		Runnable last = new Runnable() {
+
+			@Override
+			public void run() {
+				done.countDown();
+			}
+
+		};
+
+		executor.execute(blocker);
+		executor.execute(removed);
+		executor.execute(last);
+		assertTrue(executor.remove(removed));
+		assertFalse(executor.remove(removed));
+		release.countDown();
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(0, removedRuns.get());
+		assertEquals(0, executor.getQueuedCount());
+	}
+
+	@Test
+	public void runsUpToParallelismTogether() throws InterruptedException {
+		executor.setParallelism(3);
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(30);
+		Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+				int now = running.incrementAndGet();
+				int max;
+				do {
+					max = maxRunning.get();
+				} while (now > max && !maxRunning.compareAndSet(max, now));
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+				done.countDown();
+			}
+
+		};
+		for (int i = 0; i < 30; i++)
+			executor.execute(task);
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertTrue(maxRunning.get() <= 3);
+		assertTrue(maxRunning.get() > 1);
+		assertTrue(threads.size() <= 3);
+	}
+
+	@Test
+	public void loweredParallelismStopsExtraThreads()
+			throws InterruptedException {
+		executor.setParallelism(4);
+		final CountDownLatch done = new CountDownLatch(8);
+		Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				done.countDown();
+			}
+
+		};
+		for (int i = 0; i < 8; i++)
+			executor.execute(task);
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+
+		executor.setParallelism(1);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (executor.getThreadCount() > 1
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(1);
+		assertEquals(1, executor.getThreadCount());
+	}
+
+	@Test
+	public void failingTaskIsReplacedByNewThread() throws InterruptedException {
+		final CountDownLatch done = new CountDownLatch(1);
+		Thread.UncaughtExceptionHandler quiet = new Thread.UncaughtExceptionHandler() {
+
+			@Override
+			public void uncaughtException(Thread thread, Throwable e) {
+			}
+
+		};
+		Thread.UncaughtExceptionHandler previous = Thread
+				.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler(quiet);
+		try {
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					throw new IllegalStateException("Failing on purpose");
+				}
+
+			});
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					done.countDown();
+				}
+
+			});
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler(previous);
+		}
+	}
+
+	/**
+	 * Only executor's handoff is measured here, animations and views of a
+	 * click cycle can't be built off a device
+	 */
+	@Test
+	public void reusedTaskDoesNotAllocate() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory
+				.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported());
+		allocations.setThreadAllocatedMemoryEnabled(true);
+
+		ReusedTask task = new ReusedTask();
+		RunCycles(task, WARM_UP_RUNS);
+
+		long caller = Thread.currentThread().getId();
+		long worker = task.workerId;
+		long callerBefore = allocations.getThreadAllocatedBytes(caller);
+		long workerBefore = allocations.getThreadAllocatedBytes(worker);
+		RunCycles(task, MEASURED_RUNS);
+		long workerAfter = allocations.getThreadAllocatedBytes(worker);
+		long callerAfter = allocations.getThreadAllocatedBytes(caller);
+
+		// A linked queue would take a node per run on each side
+		assertEquals("Bytes allocated by caller", 0, callerAfter
+				- callerBefore);
+		assertEquals("Bytes allocated by worker", 0, workerAfter
+				- workerBefore);
+	}
+
+	/** Executes task given times, waiting for each run before next one */
+	private void RunCycles(ReusedTask task, int runs) {
+		for (int i = 0; i < runs; i++) {
+			int expected = task.runCount + 1;
+			executor.execute(task);
+			while (task.runCount != expected)
+				Thread.yield();
+		}
+	}
+
+	/** Task which is reused on every run, just like ProgressedView's */
+	private static class ReusedTask implements Runnable {
+
+		volatile int runCount = 0;
+		volatile long workerId;
+
+		@Override
+		public void run() {
+			workerId = Thread.currentThread().getId();
+			runCount++;
+		}
+
+	}
+
+}
@@ -1,19 +1,40 @@
 package com.yayandroid.progressedview;
 
+import com.yayandroid.progressedview.FrameJankTracker.FrameStats;
 import com.yayandroid.progressedview.ProgressedView; 
 import com.yayandroid.progressedview.R;
 import com.yayandroid.progressedview.ProgressedView.AnimationType;
 import com.yayandroid.progressedview.ProgressedView.ProgressType;
+import com.yayandroid.utility.InterpolatorBenchmark;
+import com.yayandroid.utility.LookupInterpolator;
 
 import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.DialogInterface;
+import android.graphics.Color;
+import android.os.Handler;
+import android.view.Gravity;
 import android.view.Menu;
 import android.view.MenuItem;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.AccelerateInterpolator;
+import android.view.animation.AnticipateInterpolator;
+import android.view.animation.AnticipateOvershootInterpolator;
+import android.view.animation.BounceInterpolator;
+import android.view.animation.CycleInterpolator;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.view.animation.OvershootInterpolator;
+import android.widget.FrameLayout;
+import android.widget.TextView;
 
 public class BaseActivity extends Activity {
 
 	protected ProgressedView pv;
+	private TextView frameStatsText;
+	private final Handler handler = new Handler();
+	private final int FRAME_STATS_REFRESH = 500;
 
 	protected final String[] anims = new String[] { "Swipe - LeftToRight",
 			"Swipe - RightToLeft", "Swipe - TopToBottom",
@@ -47,6 +68,12 @@ public class BaseActivity extends Activity {
 		case R.id.progressType:
 			ShowPopupMenu(progressTypes, 3);
 			return true;
+		case R.id.frameStats:
+			ToggleFrameStats();
+			return true;
+		case R.id.interpolatorBenchmark:
+			RunInterpolatorBenchmark();
+			return true;
 		default:
 			return super.onOptionsItemSelected(item);
 		}
@@ -66,6 +93,99 @@ public class BaseActivity extends Activity {
 		
 	}
 
+	/**
+	 * Shows frame times of transitions and seek updates on top of activity,
+	 * or hides them if they are already shown
+	 */
+	public void ToggleFrameStats() {
+		if (pv == null)
+			return;
+
+		if (frameStatsText == null) {
+			frameStatsText = new TextView(this);
+			frameStatsText.setBackgroundColor(0xAA000000);
+			frameStatsText.setTextColor(Color.WHITE);
+			frameStatsText.setTextSize(12);
+			frameStatsText.setPadding(10, 10, 10, 10);
+			addContentView(frameStatsText, new FrameLayout.LayoutParams(
+					FrameLayout.LayoutParams.MATCH_PARENT,
+					FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.BOTTOM));
+		}
+
+		if (pv.getJankTracker() != null) {
+			pv.setJankCaptureEnabled(false);
+			frameStatsText.setVisibility(View.GONE);
+			handler.removeCallbacks(refreshFrameStats);
+		} else {
+			pv.setJankCaptureEnabled(true);
+			frameStatsText.setVisibility(View.VISIBLE);
+			refreshFrameStats.run();
+		}
+	}
+
+	/**
+	 * Measures lookup tables of framework interpolators against themselves on
+	 * a background thread, and shows how accurate and how fast they are
+	 */
+	public void RunInterpolatorBenchmark() {
+		final int resolution = pv != null ? pv.getInterpolationResolution()
+				: LookupInterpolator.DEFAULT_RESOLUTION;
+		final Interpolator[] sources = new Interpolator[] {
+				new AccelerateInterpolator(), new DecelerateInterpolator(),
+				new AccelerateDecelerateInterpolator(),
+				new AnticipateInterpolator(), new OvershootInterpolator(),
+				new AnticipateOvershootInterpolator(),
+				new CycleInterpolator(1), new BounceInterpolator() };
+
+		new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				// Resolution 0 means no tables are used, so measure default one
+				final InterpolatorBenchmark.Result[] results = InterpolatorBenchmark
+						.RunAll(sources, resolution > 0 ? resolution
+								: LookupInterpolator.DEFAULT_RESOLUTION);
+				handler.post(new Runnable() {
+
+					@Override
+					public void run() {
+						if (isFinishing())
+							return;
+
+						StringBuilder builder = new StringBuilder();
+						for (InterpolatorBenchmark.Result result : results)
+							builder.append(result).append('\n');
+						new AlertDialog.Builder(BaseActivity.this)
+								.setTitle("Interpolator Benchmark")
+								.setMessage(builder).show();
+					}
+
+				});
+			}
+
+		}, "InterpolatorBenchmark").start();
+	}
+
+	private Runnable refreshFrameStats = new Runnable() {
+
+		@Override
+		public void run() {
+			StringBuilder builder = new StringBuilder(
+					"Frames [1 2 3 4 5 6+ vsyncs]");
+			for (FrameStats stats : FrameJankTracker.getAllStats())
+				builder.append('\n').append(stats);
+			frameStatsText.setText(builder);
+			handler.postDelayed(this, FRAME_STATS_REFRESH);
+		}
+
+	};
+
+	@Override
+	protected void onDestroy() {
+		handler.removeCallbacks(refreshFrameStats);
+		super.onDestroy();
+	}
+
 	public void Refresh(int position, int type) {
 		if (pv != null) {
 			switch (type) {
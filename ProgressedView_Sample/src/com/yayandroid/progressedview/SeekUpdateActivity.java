@@ -14,6 +14,7 @@ public class SeekUpdateActivity extends BaseActivity {
 
 		pv = (ProgressedView) findViewById(R.id.progressed);
 		pv.setProgressType(ProgressType.SEEK_AND_INDETERMINATE);
+		pv.setSeekTweenDuration(60);
 		pv.setProgressListener(pv.new ProgressSeekListener() {
 
 			@Override